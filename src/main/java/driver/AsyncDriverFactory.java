@@ -0,0 +1,108 @@
+package driver;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates drivers on background threads so session startup overlaps with
+ * scenario execution. Tracks outstanding handles so sessions that are never
+ * consumed get cleaned up at shutdown.
+ */
+public class AsyncDriverFactory {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncDriverFactory.class);
+
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("session.async.enabled", false);
+    private static final boolean PREFETCH = ConfigManager.getBooleanProperty("session.async.prefetch", false);
+    private static final int THREADS = ConfigManager.getIntProperty("session.async.threads", 2);
+    private static final int CREATION_TIMEOUT_SECONDS = ConfigManager.getIntProperty("session.async.timeout", 120);
+    private static final int MAX_IDLE_SECONDS = ConfigManager.getIntProperty("session.async.max.idle", 240);
+
+    private static final Set<DriverHandle> outstanding = ConcurrentHashMap.newKeySet();
+    private static volatile ExecutorService executor;
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static boolean isPrefetchEnabled() {
+        return ENABLED && PREFETCH;
+    }
+
+    static int getCreationTimeoutSeconds() {
+        return CREATION_TIMEOUT_SECONDS;
+    }
+
+    /**
+     * Start creating a driver for the platform and return a handle to it
+     */
+    public static DriverHandle submit(String platform) {
+        DriverHandle handle = new DriverHandle(platform);
+        outstanding.add(handle);
+        handle.start(getExecutor());
+        logger.debug("Submitted background {} driver creation", platform);
+        return handle;
+    }
+
+    /**
+     * A prefetched handle is usable only for the same platform and before
+     * the server's newCommandTimeout can expire the idle session
+     */
+    static boolean isUsable(DriverHandle handle, String platform) {
+        return handle.getPlatform().equalsIgnoreCase(platform)
+                && handle.getAgeMillis() < TimeUnit.SECONDS.toMillis(MAX_IDLE_SECONDS);
+    }
+
+    static void consumed(DriverHandle handle) {
+        outstanding.remove(handle);
+    }
+
+    /**
+     * Cancel every handle that was never consumed and stop the executor.
+     * Creations already running are allowed to finish so they can dispose of
+     * their sessions; interrupting them could leave a session on the server.
+     */
+    public static void shutdown() {
+        for (DriverHandle handle : outstanding) {
+            handle.cancel();
+        }
+        ExecutorService current = executor;
+        if (current != null) {
+            executor = null;
+            current.shutdown();
+            try {
+                if (!current.awaitTermination(CREATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    logger.warn("Background driver creation still running after {}s, interrupting",
+                            CREATION_TIMEOUT_SECONDS);
+                    current.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                current.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (AsyncDriverFactory.class) {
+                if (executor == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+                        Thread thread = new Thread(runnable, "driver-factory-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+}
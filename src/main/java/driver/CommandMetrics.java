@@ -0,0 +1,207 @@
+package driver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Latency histograms for every driver command, broken down by command route,
+ * locator strategy and page class. Fed by the shared HTTP client so every
+ * W3C command of every session is timed. Commands are recorded into the
+ * running scenario's histograms, which are merged into the run totals and
+ * reduced to percentiles when the scenario ends, so memory stays bounded on
+ * long runs.
+ * <p>
+ * Commands issued through a page field are attributed to the page declaring
+ * it. Other commands, such as page source reads or By lookups in page
+ * helpers, go to the page most recently constructed on the thread.
+ */
+public class CommandMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(CommandMetrics.class);
+
+    private static final Pattern USING = Pattern.compile("\"using\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String NONE = "-";
+
+    private static final Map<String, LatencyHistogram> runHistograms = new ConcurrentHashMap<>();
+    private static final Queue<Map<String, Object>> scenarioResults = new ConcurrentLinkedQueue<>();
+
+    private static final ThreadLocal<String> currentPage = new ThreadLocal<>();
+    private static final ThreadLocal<String> currentScenario = new ThreadLocal<>();
+    private static final ThreadLocal<Map<String, LatencyHistogram>> scenarioHistograms = new ThreadLocal<>();
+
+    public static void startScenario(String scenarioName) {
+        currentScenario.set(scenarioName);
+        // Concurrent: tasks run in this scenario's context on other threads record into it too
+        scenarioHistograms.set(new ConcurrentHashMap<>());
+        currentPage.remove();
+    }
+
+    public static void endScenario() {
+        Map<String, LatencyHistogram> histograms = scenarioHistograms.get();
+        if (histograms != null) {
+            for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+                runHistograms.computeIfAbsent(entry.getKey(), k -> new LatencyHistogram()).merge(entry.getValue());
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("scenario", currentScenario.get());
+            result.put("commands", summarize(histograms));
+            scenarioResults.add(result);
+        }
+        scenarioHistograms.remove();
+        currentScenario.remove();
+        currentPage.remove();
+    }
+
+    /**
+     * Attribute following commands on this thread to the given page class
+     */
+    public static void setPage(String pageName) {
+        currentPage.set(pageName);
+    }
+
+    /**
+     * Attribute this thread's commands to the page until {@link #restorePage}; returns the page it replaced
+     */
+    public static String enterPage(String pageName) {
+        String previous = currentPage.get();
+        currentPage.set(pageName);
+        return previous;
+    }
+
+    public static void restorePage(String previous) {
+        if (previous != null) {
+            currentPage.set(previous);
+        } else {
+            currentPage.remove();
+        }
+    }
+
+    /**
+     * Wrap a task so its commands are attributed to the caller's scenario and page on whatever thread runs it
+     */
+    public static <T> Callable<T> inCurrentContext(Callable<T> task) {
+        String scenario = currentScenario.get();
+        Map<String, LatencyHistogram> histograms = scenarioHistograms.get();
+        String page = currentPage.get();
+        return () -> {
+            String previousScenario = currentScenario.get();
+            Map<String, LatencyHistogram> previousHistograms = scenarioHistograms.get();
+            String previousPage = currentPage.get();
+            set(currentScenario, scenario);
+            set(scenarioHistograms, histograms);
+            set(currentPage, page);
+            try {
+                return task.call();
+            } finally {
+                set(currentScenario, previousScenario);
+                set(scenarioHistograms, previousHistograms);
+                set(currentPage, previousPage);
+            }
+        };
+    }
+
+    private static <T> void set(ThreadLocal<T> local, T value) {
+        if (value != null) {
+            local.set(value);
+        } else {
+            local.remove();
+        }
+    }
+
+    static void record(HttpRequest request, String command, long nanos) {
+        String page = currentPage.get();
+        String key = command + "|" + locatorStrategy(request, command) + "|" + (page != null ? page : NONE);
+        long micros = nanos / 1000;
+
+        // Scenario histograms are merged into the run totals when the scenario ends
+        Map<String, LatencyHistogram> histograms = scenarioHistograms.get();
+        (histograms != null ? histograms : runHistograms)
+                .computeIfAbsent(key, k -> new LatencyHistogram()).record(micros);
+    }
+
+    private static String locatorStrategy(HttpRequest request, String command) {
+        if (!command.endsWith("/element") && !command.endsWith("/elements")) {
+            return NONE;
+        }
+        try {
+            Matcher matcher = USING.matcher(Contents.string(request));
+            return matcher.find() ? matcher.group(1) : NONE;
+        } catch (RuntimeException e) {
+            return NONE;
+        }
+    }
+
+    private static List<Map<String, Object>> summarize(Map<String, LatencyHistogram> histograms) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String[] parts = entry.getKey().split("\\|", 3);
+            LatencyHistogram histogram = entry.getValue();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("command", parts[0]);
+            row.put("strategy", parts[1]);
+            row.put("page", parts[2]);
+            row.put("count", histogram.getCount());
+            row.put("meanMs", round(histogram.getMeanMillis()));
+            row.put("p50Ms", round(histogram.getPercentileMillis(50)));
+            row.put("p95Ms", round(histogram.getPercentileMillis(95)));
+            row.put("p99Ms", round(histogram.getPercentileMillis(99)));
+            row.put("maxMs", round(histogram.getMaxMillis()));
+            rows.add(row);
+        }
+        rows.sort((a, b) -> Double.compare(
+                (double) b.get("meanMs") * (long) b.get("count"), (double) a.get("meanMs") * (long) a.get("count")));
+        return rows;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Write run-level and per-scenario percentiles as JSON
+     */
+    public static void exportJson(String path) {
+        Map<String, Object> export = new LinkedHashMap<>();
+        export.put("run", summarize(runHistograms));
+        export.put("scenarios", new ArrayList<>(scenarioResults));
+        try {
+            File file = new File(path);
+            if (file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, export);
+            logger.info("Command latency metrics written to: {}", path);
+        } catch (IOException e) {
+            logger.error("Failed to write command latency metrics to {}", path, e);
+        }
+    }
+
+    /**
+     * Run-level percentiles for the commands that took the most total time
+     */
+    public static String getRunSummary() {
+        StringBuilder summary = new StringBuilder("Command Latency");
+        for (Map<String, Object> row : summarize(runHistograms)) {
+            summary.append(String.format("%n  %s [%s] %s - Calls: %s, p50: %s ms, p95: %s ms, p99: %s ms",
+                    row.get("command"), row.get("strategy"), row.get("page"), row.get("count"),
+                    row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms")));
+        }
+        return summary.toString();
+    }
+}
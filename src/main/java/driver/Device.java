@@ -0,0 +1,59 @@
+package driver;
+
+/**
+ * A device from the local inventory together with the ports reserved for it.
+ * Ports are unique per device, so whoever holds the device owns its ports.
+ */
+public class Device {
+    private final String platform;
+    private final String udid;
+    private final String name;
+    private final String platformVersion;
+    private final int systemPort;
+    private final int chromedriverPort;
+    private final int wdaLocalPort;
+
+    Device(String platform, String udid, String name, String platformVersion,
+           int systemPort, int chromedriverPort, int wdaLocalPort) {
+        this.platform = platform;
+        this.udid = udid;
+        this.name = name;
+        this.platformVersion = platformVersion;
+        this.systemPort = systemPort;
+        this.chromedriverPort = chromedriverPort;
+        this.wdaLocalPort = wdaLocalPort;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public String getUdid() {
+        return udid;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPlatformVersion() {
+        return platformVersion;
+    }
+
+    public int getSystemPort() {
+        return systemPort;
+    }
+
+    public int getChromedriverPort() {
+        return chromedriverPort;
+    }
+
+    public int getWdaLocalPort() {
+        return wdaLocalPort;
+    }
+
+    @Override
+    public String toString() {
+        return platform + ":" + udid + " (" + name + ")";
+    }
+}
@@ -0,0 +1,141 @@
+package driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.appium.java_client.AppiumDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out devices from a local inventory file so every session gets its own
+ * device and port set. Callers wait in arrival order when all devices of a
+ * platform are busy. The device is released when its session quits.
+ *
+ * Inventory format (JSON array):
+ * <pre>
+ * [{"platform": "android", "udid": "emulator-5554", "name": "Pixel 7", "platformVersion": "14.0"}]
+ * </pre>
+ * Optional per-device keys systemPort, chromedriverPort and wdaLocalPort override
+ * the ports derived from the configured base ports.
+ */
+public class DeviceRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(DeviceRegistry.class);
+
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("device.registry.enabled", false);
+    private static final String INVENTORY_PATH =
+            ConfigManager.getProperty("device.inventory.path", "src/test/resources/devices.json");
+    private static final int ACQUIRE_TIMEOUT_SECONDS = ConfigManager.getIntProperty("device.acquire.timeout", 600);
+
+    private static final Map<String, BlockingQueue<Device>> availableDevices = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> deviceCounts = new ConcurrentHashMap<>();
+    private static final Map<AppiumDriver, Device> allocatedDevices = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            loadInventory();
+        }
+    }
+
+    private static void loadInventory() {
+        try {
+            JsonNode root = new ObjectMapper().readTree(new File(INVENTORY_PATH));
+            int systemPortBase = ConfigManager.getIntProperty("device.port.system.base", 8200);
+            int chromedriverPortBase = ConfigManager.getIntProperty("device.port.chromedriver.base", 9515);
+            int wdaPortBase = ConfigManager.getIntProperty("device.port.wda.base", 8100);
+
+            Map<String, List<Device>> devicesByPlatform = new HashMap<>();
+            int index = 0;
+            for (JsonNode node : root) {
+                String platform = node.path("platform").asText("android").toLowerCase();
+                Device device = new Device(
+                        platform,
+                        node.path("udid").asText(),
+                        node.path("name").asText(node.path("udid").asText()),
+                        node.path("platformVersion").asText(null),
+                        node.path("systemPort").asInt(systemPortBase + index),
+                        node.path("chromedriverPort").asInt(chromedriverPortBase + index),
+                        node.path("wdaLocalPort").asInt(wdaPortBase + index));
+                devicesByPlatform.computeIfAbsent(platform, p -> new ArrayList<>()).add(device);
+                index++;
+            }
+
+            for (Map.Entry<String, List<Device>> entry : devicesByPlatform.entrySet()) {
+                // Fair queue so waiting workers get devices in arrival order
+                BlockingQueue<Device> queue = new ArrayBlockingQueue<>(entry.getValue().size(), true, entry.getValue());
+                availableDevices.put(entry.getKey(), queue);
+                deviceCounts.put(entry.getKey(), queue.size());
+                logger.info("Registered {} {} device(s)", queue.size(), entry.getKey());
+            }
+        } catch (IOException e) {
+            logger.error("Failed to load device inventory from {}", INVENTORY_PATH, e);
+            throw new RuntimeException("Device inventory loading failed", e);
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Number of devices registered for the platform, busy or not
+     */
+    public static int getDeviceCount(String platform) {
+        return deviceCounts.getOrDefault(platform.toLowerCase(), 0);
+    }
+
+    /**
+     * Take a free device for the platform, waiting while all of them are busy
+     */
+    static Device acquire(String platform) {
+        BlockingQueue<Device> queue = availableDevices.get(platform.toLowerCase());
+        if (queue == null) {
+            throw new IllegalStateException("No " + platform + " devices in inventory " + INVENTORY_PATH);
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Device device = queue.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (device == null) {
+                throw new IllegalStateException("Timed out waiting for a free " + platform + " device");
+            }
+            logger.info("Acquired device {} after {} ms", device, System.currentTimeMillis() - start);
+            return device;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a " + platform + " device", e);
+        }
+    }
+
+    static void bind(AppiumDriver driver, Device device) {
+        allocatedDevices.put(driver, device);
+    }
+
+    /**
+     * Return a device that never got a session attached
+     */
+    static void release(Device device) {
+        availableDevices.get(device.getPlatform()).offer(device);
+        logger.info("Released device {}", device);
+    }
+
+    /**
+     * Return the device held by a session that is being quit
+     */
+    static void release(AppiumDriver driver) {
+        Device device = allocatedDevices.remove(driver);
+        if (device != null) {
+            release(device);
+        }
+    }
+}
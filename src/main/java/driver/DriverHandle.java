@@ -0,0 +1,112 @@
+package driver;
+
+import io.appium.java_client.AppiumDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Future-backed handle to a driver that is being created in the background.
+ * {@link #get()} blocks only until the session is ready. A cancelled handle
+ * never leaks its session: if creation is already running it is left to
+ * finish and the creating thread disposes of the driver it made.
+ */
+public class DriverHandle {
+    private static final Logger logger = LoggerFactory.getLogger(DriverHandle.class);
+
+    private final String platform;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile Future<AppiumDriver> future;
+
+    // Guarded by this: a created driver stays here until get() hands it over or cancel() disposes of it
+    private boolean cancelled;
+    private AppiumDriver created;
+
+    DriverHandle(String platform) {
+        this.platform = platform;
+    }
+
+    void start(ExecutorService executor) {
+        future = executor.submit(ConfigManager.inCurrentScope(this::create));
+    }
+
+    private AppiumDriver create() throws Exception {
+        AppiumDriver appiumDriver = DriverManager.acquireDriver(platform);
+        synchronized (this) {
+            if (!cancelled) {
+                created = appiumDriver;
+                return appiumDriver;
+            }
+        }
+        DriverManager.disposeDriver(appiumDriver);
+        logger.info("Disposed {} driver created after its handle was cancelled", platform);
+        return null;
+    }
+
+    public String getPlatform() {
+        return platform;
+    }
+
+    public boolean isReady() {
+        return future.isDone() && !future.isCancelled();
+    }
+
+    public long getAgeMillis() {
+        return System.currentTimeMillis() - createdAt;
+    }
+
+    /**
+     * Wait for the session, giving up after the configured creation timeout
+     */
+    public AppiumDriver get() {
+        try {
+            future.get(AsyncDriverFactory.getCreationTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            cancel();
+            throw new RuntimeException("Timed out waiting for " + platform + " driver", e);
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for " + platform + " driver", e);
+        } catch (ExecutionException e) {
+            AsyncDriverFactory.consumed(this);
+            throw new RuntimeException("Driver initialization failed", e.getCause());
+        }
+        AsyncDriverFactory.consumed(this);
+        synchronized (this) {
+            if (cancelled || created == null) {
+                throw new IllegalStateException("Pending " + platform + " driver was cancelled");
+            }
+            AppiumDriver appiumDriver = created;
+            created = null;
+            return appiumDriver;
+        }
+    }
+
+    /**
+     * Cancel creation. A session that is already created is disposed of here;
+     * one still being created is disposed of by the creating thread when it
+     * finishes, so a running creation is never interrupted half way.
+     */
+    public void cancel() {
+        AsyncDriverFactory.consumed(this);
+        AppiumDriver unused;
+        synchronized (this) {
+            cancelled = true;
+            unused = created;
+            created = null;
+        }
+        if (unused != null) {
+            DriverManager.disposeDriver(unused);
+            logger.info("Disposed unused {} driver", platform);
+        } else if (future.cancel(false)) {
+            logger.info("Cancelled pending {} driver creation", platform);
+        }
+    }
+}
@@ -17,12 +17,16 @@ import java.time.Duration;
 public class DriverManager {
     private static final Logger logger = LoggerFactory.getLogger(DriverManager.class);
     private static final ThreadLocal<AppiumDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<DriverHandle> pendingDriver = new ThreadLocal<>();
+    private static final ThreadLocal<DriverHandle> nextDriver = new ThreadLocal<>();
 
     public static void initializeDriver(String platform) {
+        if (AsyncDriverFactory.isEnabled()) {
+            initializeDriverAsync(platform);
+            return;
+        }
         try {
-            AppiumDriver appiumDriver = createDriver(platform);
-            appiumDriver.manage().timeouts().implicitlyWait(Duration.ofSeconds(30));
-            driver.set(appiumDriver);
+            driver.set(acquireDriver(platform));
             logger.info("Driver initialized successfully for platform: {}", platform);
         } catch (Exception e) {
             logger.error("Failed to initialize driver for platform: {}", platform, e);
@@ -30,21 +34,83 @@ public class DriverManager {
         }
     }
 
-    private static AppiumDriver createDriver(String platform) throws MalformedURLException {
+    /**
+     * Hand the thread a future-backed driver and start warming the next one
+     */
+    private static void initializeDriverAsync(String platform) {
+        DriverHandle handle = nextDriver.get();
+        nextDriver.remove();
+        if (handle != null && !AsyncDriverFactory.isUsable(handle, platform)) {
+            handle.cancel();
+            handle = null;
+        }
+        if (handle == null) {
+            handle = AsyncDriverFactory.submit(platform);
+        }
+        pendingDriver.set(handle);
+
+        if (AsyncDriverFactory.isPrefetchEnabled()) {
+            nextDriver.set(AsyncDriverFactory.submit(platform));
+        }
+        logger.info("Driver requested asynchronously for platform: {}", platform);
+    }
+
+    static AppiumDriver acquireDriver(String platform) throws MalformedURLException {
+        return SessionPool.isEnabled() ? SessionPool.lease(platform) : createDriver(platform);
+    }
+
+    static void disposeDriver(AppiumDriver appiumDriver) {
+        if (SessionPool.isEnabled()) {
+            SessionPool.release(appiumDriver);
+        } else {
+            quitSession(appiumDriver);
+        }
+    }
+
+    /**
+     * End the Appium session and give its device back to the registry
+     */
+    static void quitSession(AppiumDriver appiumDriver) {
+        try {
+            appiumDriver.quit();
+        } finally {
+            DeviceRegistry.release(appiumDriver);
+        }
+    }
+
+    static AppiumDriver createDriver(String platform) throws MalformedURLException {
         DesiredCapabilities capabilities = new DesiredCapabilities();
         String appiumServerUrl = ConfigManager.getProperty("appium.server.url");
+        Device device = DeviceRegistry.isEnabled() ? DeviceRegistry.acquire(platform) : null;
 
-        switch (platform.toLowerCase()) {
-            case "android":
-                return createAndroidDriver(capabilities, appiumServerUrl);
-            case "ios":
-                return createIOSDriver(capabilities, appiumServerUrl);
-            default:
-                throw new IllegalArgumentException("Unsupported platform: " + platform);
+        try {
+            AppiumDriver appiumDriver;
+            switch (platform.toLowerCase()) {
+                case "android":
+                    appiumDriver = createAndroidDriver(capabilities, appiumServerUrl, device);
+                    break;
+                case "ios":
+                    appiumDriver = createIOSDriver(capabilities, appiumServerUrl, device);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported platform: " + platform);
+            }
+            if (device != null) {
+                DeviceRegistry.bind(appiumDriver, device);
+            }
+            // Implicit wait stays off by default; explicit waits in BasePage own all waiting
+            appiumDriver.manage().timeouts().implicitlyWait(
+                    Duration.ofSeconds(ConfigManager.getIntProperty("test.timeout.implicit", 0)));
+            return appiumDriver;
+        } catch (RuntimeException | MalformedURLException e) {
+            if (device != null) {
+                DeviceRegistry.release(device);
+            }
+            throw e;
         }
     }
 
-    private static AndroidDriver createAndroidDriver(DesiredCapabilities capabilities, String serverUrl)
+    private static AndroidDriver createAndroidDriver(DesiredCapabilities capabilities, String serverUrl, Device device)
             throws MalformedURLException {
         capabilities.setCapability("platformName", "Android");
         capabilities.setCapability("platformVersion", ConfigManager.getProperty("android.platform.version"));
@@ -56,11 +122,16 @@ public class DriverManager {
         capabilities.setCapability("noReset", false);
         capabilities.setCapability("fullReset", false);
         capabilities.setCapability("newCommandTimeout", 300);
+        if (device != null) {
+            applyDevice(capabilities, device);
+            capabilities.setCapability("systemPort", device.getSystemPort());
+            capabilities.setCapability("chromedriverPort", device.getChromedriverPort());
+        }
 
-        return new AndroidDriver(new URL(serverUrl), capabilities);
+        return new AndroidDriver(new URL(serverUrl), HttpClientFactory.getInstance(), capabilities);
     }
 
-    private static IOSDriver createIOSDriver(DesiredCapabilities capabilities, String serverUrl)
+    private static IOSDriver createIOSDriver(DesiredCapabilities capabilities, String serverUrl, Device device)
             throws MalformedURLException {
         capabilities.setCapability("platformName", "iOS");
         capabilities.setCapability("platformVersion", ConfigManager.getProperty("ios.platform.version"));
@@ -71,13 +142,33 @@ public class DriverManager {
         capabilities.setCapability("noReset", false);
         capabilities.setCapability("fullReset", false);
         capabilities.setCapability("newCommandTimeout", 300);
-        capabilities.setCapability("wdaLocalPort", 8100);
+        capabilities.setCapability("wdaLocalPort", ConfigManager.getIntProperty("ios.wda.local.port", 8100));
+        if (device != null) {
+            applyDevice(capabilities, device);
+            capabilities.setCapability("wdaLocalPort", device.getWdaLocalPort());
+        }
 
-        return new IOSDriver(new URL(serverUrl), capabilities);
+        return new IOSDriver(new URL(serverUrl), HttpClientFactory.getInstance(), capabilities);
+    }
+
+    private static void applyDevice(DesiredCapabilities capabilities, Device device) {
+        capabilities.setCapability("udid", device.getUdid());
+        capabilities.setCapability("deviceName", device.getName());
+        if (device.getPlatformVersion() != null) {
+            capabilities.setCapability("platformVersion", device.getPlatformVersion());
+        }
     }
 
     public static AppiumDriver getDriver() {
         AppiumDriver currentDriver = driver.get();
+        DriverHandle handle = pendingDriver.get();
+        if (currentDriver == null && handle != null) {
+            // Blocks only if the background session is not ready yet
+            pendingDriver.remove();
+            currentDriver = handle.get();
+            driver.set(currentDriver);
+            logger.info("Driver initialized successfully for platform: {}", handle.getPlatform());
+        }
         if (currentDriver == null) {
             throw new IllegalStateException("Driver is not initialized. Call initializeDriver() first.");
         }
@@ -85,15 +176,62 @@ public class DriverManager {
     }
 
     public static void quitDriver() {
+        DriverHandle handle = pendingDriver.get();
+        if (handle != null) {
+            pendingDriver.remove();
+            handle.cancel();
+        }
+
+        AppiumDriver currentDriver = driver.get();
+        if (currentDriver != null) {
+            driver.remove();
+            disposeDriver(currentDriver);
+            logger.info(SessionPool.isEnabled() ? "Driver returned to session pool" : "Driver quit successfully");
+        }
+    }
+
+    /**
+     * End the current session without pooling it, for sessions that are suspected broken
+     */
+    public static void discardDriver() {
+        DriverHandle handle = pendingDriver.get();
+        if (handle != null) {
+            pendingDriver.remove();
+            handle.cancel();
+        }
+
         AppiumDriver currentDriver = driver.get();
         if (currentDriver != null) {
-            currentDriver.quit();
             driver.remove();
-            logger.info("Driver quit successfully");
+            try {
+                if (SessionPool.isEnabled()) {
+                    SessionPool.discard(currentDriver);
+                } else {
+                    quitSession(currentDriver);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to quit discarded session: {}", e.getMessage());
+            }
+            logger.info("Driver discarded");
+        }
+    }
+
+    /**
+     * Release the current thread's driver and close all pooled and pending sessions
+     */
+    public static void shutdown() {
+        quitDriver();
+        nextDriver.remove();
+        if (AsyncDriverFactory.isEnabled()) {
+            AsyncDriverFactory.shutdown();
+        }
+        if (SessionPool.isEnabled()) {
+            SessionPool.shutdown();
         }
+        HttpClientFactory.shutdown();
     }
 
     public static boolean isDriverInitialized() {
-        return driver.get() != null;
+        return driver.get() != null || pendingDriver.get() != null;
     }
 }
\ No newline at end of file
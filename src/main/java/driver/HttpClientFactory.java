@@ -0,0 +1,202 @@
+package driver;
+
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.ConnectionFailedException;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.http.HttpConnectTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP client factory shared by every Appium session. Sessions talking to the
+ * same server share one tuned client, and so one keep-alive connection pool.
+ * Timeouts, retries on connection failures and per-command read timeouts come
+ * from ConfigManager. Every command is timed into {@link CommandMetrics}.
+ * <p>
+ * A command with its own read timeout is sent through a client configured
+ * with that timeout, so the HTTP client itself abandons the request; each
+ * distinct timeout value gets its own client and connection pool.
+ */
+public class HttpClientFactory implements HttpClient.Factory {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientFactory.class);
+
+    private static final int CONNECT_TIMEOUT_SECONDS = ConfigManager.getIntProperty("http.connect.timeout", 10);
+    // Also bounds new-session requests, which can take minutes on real devices
+    private static final int READ_TIMEOUT_SECONDS = ConfigManager.getIntProperty("http.read.timeout", 300);
+    private static final int COMMAND_TIMEOUT_SECONDS = ConfigManager.getIntProperty("http.read.timeout.command", 0);
+    private static final int RETRY_COUNT = ConfigManager.getIntProperty("http.retry.count", 1);
+
+    private static final HttpClientFactory INSTANCE = new HttpClientFactory();
+
+    private static final Map<String, Integer> commandTimeouts = new ConcurrentHashMap<>();
+
+    static {
+        // Read once by the JDK HTTP client when its connection pool is first used
+        setIfAbsent("jdk.httpclient.keepalive.timeout", ConfigManager.getProperty("http.keepalive.seconds", "600"));
+        setIfAbsent("jdk.httpclient.connectionPoolSize", ConfigManager.getProperty("http.pool.size", "0"));
+    }
+
+    private final HttpClient.Factory delegate = HttpClient.Factory.createDefault();
+    private final Map<String, HttpClient> sharedClients = new ConcurrentHashMap<>();
+
+    public static HttpClientFactory getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public HttpClient createClient(ClientConfig config) {
+        return new SharedHttpClient(config);
+    }
+
+    /**
+     * The shared client for the server with the given read timeout
+     */
+    private HttpClient sharedClient(ClientConfig config, int readTimeoutSeconds) {
+        return sharedClients.computeIfAbsent(config.baseUri() + "#" + readTimeoutSeconds,
+                key -> delegate.createClient(tune(config, readTimeoutSeconds)));
+    }
+
+    @Override
+    public void cleanupIdleClients() {
+        delegate.cleanupIdleClients();
+    }
+
+    /**
+     * Close the shared clients and log per-command latency
+     */
+    public static void shutdown() {
+        for (HttpClient client : INSTANCE.sharedClients.values()) {
+            client.close();
+        }
+        INSTANCE.sharedClients.clear();
+        logger.info(CommandMetrics.getRunSummary());
+    }
+
+    private static ClientConfig tune(ClientConfig config, int readTimeoutSeconds) {
+        Filter filters = config.filter()
+                .andThen(HttpClientFactory::recordLatency)
+                .andThen(HttpClientFactory::retryOnConnectionFailure);
+        return config
+                .connectionTimeout(Duration.ofSeconds(CONNECT_TIMEOUT_SECONDS))
+                .readTimeout(Duration.ofSeconds(readTimeoutSeconds))
+                .withFilter(filters);
+    }
+
+    private static HttpHandler recordLatency(HttpHandler next) {
+        return request -> {
+            long start = System.nanoTime();
+            try {
+                return next.execute(request);
+            } finally {
+                CommandMetrics.record(request, commandName(request), System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static HttpHandler retryOnConnectionFailure(HttpHandler next) {
+        return request -> {
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    return next.execute(request);
+                } catch (UncheckedIOException | ConnectionFailedException e) {
+                    if (attempt >= RETRY_COUNT || !isRetryable(request, e)) {
+                        throw e;
+                    }
+                    logger.warn("Retrying {} after connection failure: {}", commandName(request), e.getMessage());
+                }
+            }
+        };
+    }
+
+    /**
+     * A command can be repeated only if the server never saw it, or if it is a
+     * GET. Repeating a POST that was sent could start a second session or
+     * repeat a tap.
+     */
+    private static boolean isRetryable(HttpRequest request, RuntimeException failure) {
+        if (request.getMethod() == HttpMethod.GET || failure instanceof ConnectionFailedException) {
+            return true;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int commandTimeoutSeconds(HttpRequest request) {
+        String name = commandName(request);
+        if (request.getMethod() == HttpMethod.POST && name.endsWith("/session")) {
+            return 0;
+        }
+        String key = name.substring(name.lastIndexOf('/') + 1).replace(':', '.');
+        return commandTimeouts.computeIfAbsent(key,
+                k -> ConfigManager.getIntProperty("http.read.timeout." + k, COMMAND_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Method and path with session and element IDs replaced, e.g. "POST /session/{id}/element/{id}/click"
+     */
+    static String commandName(HttpRequest request) {
+        String path = request.getUri();
+        int query = path.indexOf('?');
+        if (query >= 0) {
+            path = path.substring(0, query);
+        }
+        StringBuilder normalized = new StringBuilder();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                normalized.append('/').append(segment.matches("[A-Za-z_:]+") ? segment : "{id}");
+            }
+        }
+        return request.getMethod() + " " + (normalized.length() > 0 ? normalized : "/");
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null && value != null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Per-session view of the shared clients; closing a session must not close the shared connections
+     */
+    private static class SharedHttpClient implements HttpClient {
+        private final ClientConfig config;
+
+        private SharedHttpClient(ClientConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            int timeoutSeconds = commandTimeoutSeconds(request);
+            return INSTANCE.sharedClient(config, timeoutSeconds > 0 ? timeoutSeconds : READ_TIMEOUT_SECONDS)
+                    .execute(request);
+        }
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            return INSTANCE.sharedClient(config, READ_TIMEOUT_SECONDS).openSocket(request, listener);
+        }
+
+        @Override
+        public void close() {
+            // Shared clients are closed in shutdown()
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package driver;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.net.MalformedURLException;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps warm Appium sessions per platform so scenarios lease an existing
+ * session instead of paying for a new one. Returned sessions get their app
+ * state reset; sessions that fail a health check are evicted.
+ * <p>
+ * session.pool.size.&lt;platform&gt; caps the live sessions, leased and idle,
+ * per platform: every session holds a permit until it is quit. A lease with
+ * no idle session and no permit left waits for a release or an eviction, up
+ * to session.pool.acquire.timeout.seconds.
+ */
+public class SessionPool {
+    private static final Logger logger = LoggerFactory.getLogger(SessionPool.class);
+
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("session.pool.enabled", false);
+    private static final int MAX_REUSE = ConfigManager.getIntProperty("session.pool.max.reuse", 20);
+    private static final String RESET_STRATEGY = ConfigManager.getProperty("session.pool.reset.strategy", "terminate");
+    private static final long ACQUIRE_TIMEOUT_NANOS =
+            TimeUnit.SECONDS.toNanos(ConfigManager.getIntProperty("session.pool.acquire.timeout.seconds", 600));
+    // Longest a waiting lease goes without checking for a permit freed by an eviction
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private static final Map<String, BlockingDeque<PooledSession>> idleSessions = new ConcurrentHashMap<>();
+    private static final Map<AppiumDriver, PooledSession> leasedSessions = new ConcurrentHashMap<>();
+    private static final Map<String, Semaphore> sessionPermits = new ConcurrentHashMap<>();
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong evictions = new AtomicLong();
+    private static final AtomicLong leases = new AtomicLong();
+    private static final AtomicLong waits = new AtomicLong();
+    private static final AtomicLong totalHitNanos = new AtomicLong();
+    private static final AtomicLong totalMissNanos = new AtomicLong();
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Lease a session for the platform, reusing a healthy idle one when available.
+     * At the platform's session cap this waits for one to be released or evicted.
+     */
+    public static AppiumDriver lease(String platform) throws MalformedURLException {
+        String key = platform.toLowerCase();
+        BlockingDeque<PooledSession> idle = getIdleSessions(key);
+        Semaphore permits = getPermits(key);
+        long start = System.nanoTime();
+        boolean waited = false;
+
+        PooledSession session = null;
+        while (session == null) {
+            session = pollHealthy(idle);
+            if (session != null) {
+                hits.incrementAndGet();
+                totalHitNanos.addAndGet(System.nanoTime() - start);
+                logger.info("Reusing pooled {} session {}", key, session.driver.getSessionId());
+                break;
+            }
+            if (permits.tryAcquire()) {
+                session = create(key, permits);
+                misses.incrementAndGet();
+                totalMissNanos.addAndGet(System.nanoTime() - start);
+                logger.info("Created new {} session {} for pool", key, session.driver.getSessionId());
+                break;
+            }
+
+            long remaining = ACQUIRE_TIMEOUT_NANOS - (System.nanoTime() - start);
+            if (remaining <= 0) {
+                throw new SessionNotCreatedException("No " + key + " session became available within "
+                        + TimeUnit.NANOSECONDS.toSeconds(ACQUIRE_TIMEOUT_NANOS) + " s; all "
+                        + getPoolSize(key) + " are in use");
+            }
+            if (!waited) {
+                waited = true;
+                waits.incrementAndGet();
+                logger.info("All {} {} sessions are in use, waiting for one", getPoolSize(key), key);
+            }
+            // Wakes as soon as a session is released; an eviction is noticed on the next pass
+            try {
+                PooledSession released = idle.pollFirst(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                if (released != null) {
+                    idle.offerFirst(released);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SessionNotCreatedException("Interrupted while waiting for a " + key + " session");
+            }
+        }
+
+        session.leaseCount++;
+        leases.incrementAndGet();
+        leasedSessions.put(session.driver, session);
+        return session.driver;
+    }
+
+    /**
+     * First healthy idle session, evicting the unhealthy ones ahead of it
+     */
+    private static PooledSession pollHealthy(BlockingDeque<PooledSession> idle) {
+        PooledSession session;
+        while ((session = idle.pollFirst()) != null) {
+            if (isHealthy(session.driver)) {
+                return session;
+            }
+            evict(session, "failed health check");
+        }
+        return null;
+    }
+
+    /**
+     * New session holding an already acquired permit, which is given back if creation fails
+     */
+    private static PooledSession create(String platform, Semaphore permits) throws MalformedURLException {
+        boolean created = false;
+        try {
+            PooledSession session = new PooledSession(DriverManager.createDriver(platform), platform);
+            created = true;
+            return session;
+        } finally {
+            if (!created) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Return a leased session to the pool, resetting the app instead of quitting
+     */
+    public static void release(AppiumDriver driver) {
+        PooledSession session = leasedSessions.remove(driver);
+        if (session == null) {
+            logger.warn("Releasing a session that was not leased from the pool, quitting it");
+            quietQuit(driver);
+            return;
+        }
+
+        if (session.leaseCount >= MAX_REUSE) {
+            evict(session, "reached max reuse count " + MAX_REUSE);
+            return;
+        }
+        if (!isHealthy(driver) || !resetAppState(session)) {
+            evict(session, "could not be reset");
+            return;
+        }
+        if (!getIdleSessions(session.platform).offerFirst(session)) {
+            evict(session, "pool is full");
+            return;
+        }
+        logger.info("Returned {} session {} to pool", session.platform, driver.getSessionId());
+    }
+
+    /**
+     * Drop a leased session without returning it to the pool, e.g. after it crashed
+     */
+    public static void discard(AppiumDriver driver) {
+        PooledSession session = leasedSessions.remove(driver);
+        if (session == null) {
+            quietQuit(driver);
+            return;
+        }
+        evict(session, "discarded after an infrastructure failure");
+    }
+
+    /**
+     * Create idle sessions up front so the first scenarios hit the pool
+     */
+    public static void prewarm(String platform) {
+        String key = platform.toLowerCase();
+        int count = Math.min(ConfigManager.getIntProperty("session.pool.prewarm", 0), getPoolSize(key));
+        Semaphore permits = getPermits(key);
+        for (int i = 0; i < count && permits.tryAcquire(); i++) {
+            try {
+                PooledSession session = create(key, permits);
+                if (!getIdleSessions(key).offerLast(session)) {
+                    evict(session, "pool is full");
+                    break;
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to prewarm {} session", key, e);
+                break;
+            }
+        }
+        logger.info("Prewarmed {} {} session(s)", getIdleSessions(key).size(), key);
+    }
+
+    /**
+     * Quit every idle session and log pool metrics
+     */
+    public static void shutdown() {
+        for (BlockingDeque<PooledSession> idle : idleSessions.values()) {
+            PooledSession session;
+            while ((session = idle.pollFirst()) != null) {
+                quietQuit(session.driver);
+                getPermits(session.platform).release();
+            }
+        }
+        logger.info(getMetricsSummary());
+    }
+
+    /**
+     * Acquisition time is split by hit and miss: the gap between them is what pooling saves per lease
+     */
+    public static String getMetricsSummary() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long avgHitMillis = hitCount > 0 ? TimeUnit.NANOSECONDS.toMillis(totalHitNanos.get()) / hitCount : 0;
+        long avgMissMillis = missCount > 0 ? TimeUnit.NANOSECONDS.toMillis(totalMissNanos.get()) / missCount : 0;
+        return String.format("Session Pool - Leases: %d, Hits: %d, Misses: %d, Evictions: %d, Waited at cap: %d, "
+                        + "Avg acquire hit: %d ms, Avg acquire miss: %d ms",
+                leases.get(), hitCount, missCount, evictions.get(), waits.get(), avgHitMillis, avgMissMillis);
+    }
+
+    private static BlockingDeque<PooledSession> getIdleSessions(String platform) {
+        return idleSessions.computeIfAbsent(platform, p -> new LinkedBlockingDeque<>(getPoolSize(p)));
+    }
+
+    private static Semaphore getPermits(String platform) {
+        return sessionPermits.computeIfAbsent(platform, p -> new Semaphore(getPoolSize(p)));
+    }
+
+    private static int getPoolSize(String platform) {
+        return Math.max(1, ConfigManager.getIntProperty("session.pool.size." + platform, 1));
+    }
+
+    private static boolean isHealthy(AppiumDriver driver) {
+        try {
+            // Cheap round-trip that fails fast on a dead session
+            driver.manage().timeouts().getImplicitWaitTimeout();
+            return driver.getSessionId() != null;
+        } catch (Exception e) {
+            logger.warn("Pooled session failed health check: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean resetAppState(PooledSession session) {
+        String appId = "android".equals(session.platform)
+                ? ConfigManager.getProperty("android.app.package")
+                : ConfigManager.getProperty("ios.bundle.id");
+        try {
+            InteractsWithApps apps = (InteractsWithApps) session.driver;
+            if ("clear".equalsIgnoreCase(RESET_STRATEGY) && "android".equals(session.platform)) {
+                session.driver.executeScript("mobile: clearApp", Map.of("appId", appId));
+            } else {
+                apps.terminateApp(appId);
+            }
+            apps.activateApp(appId);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to reset app state for {}: {}", appId, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void evict(PooledSession session, String reason) {
+        evictions.incrementAndGet();
+        logger.info("Evicting {} session: {}", session.platform, reason);
+        quietQuit(session.driver);
+        getPermits(session.platform).release();
+    }
+
+    private static void quietQuit(AppiumDriver driver) {
+        try {
+            DriverManager.quitSession(driver);
+        } catch (Exception e) {
+            logger.debug("Error while quitting session", e);
+        }
+    }
+
+    private static class PooledSession {
+        private final AppiumDriver driver;
+        private final String platform;
+        private int leaseCount;
+
+        private PooledSession(AppiumDriver driver, String platform) {
+            this.driver = driver;
+            this.platform = platform;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package listeners;
+
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+/**
+ * Sorts a test failure into infrastructure, flaky wait or product bug by
+ * walking its cause chain. Infrastructure wins over the other classes, since
+ * a dead session also surfaces as timeouts and missing elements.
+ */
+public class FailureClassifier {
+
+    public enum FailureClass {
+        /** Session, device, Appium server or network trouble */
+        INFRASTRUCTURE,
+        /** Timing: a wait ran out or an element went stale */
+        FLAKY_WAIT,
+        /** Assertions and anything not recognised */
+        PRODUCT_BUG
+    }
+
+    private static final String[] INFRASTRUCTURE_MESSAGES = {
+            "session is either terminated or not started",
+            "instrumentation process is not running",
+            "could not proxy command",
+            "socket hang up",
+            "econnrefused",
+            "econnreset",
+            "driver initialization failed",
+            "device offline",
+            "xcodebuild failed"
+    };
+
+    public static FailureClass classify(Throwable failure) {
+        boolean flakyWait = false;
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (isInfrastructure(cause)) {
+                return FailureClass.INFRASTRUCTURE;
+            }
+            flakyWait |= isFlakyWait(cause);
+        }
+        // A failed assertion is a verdict about the product, whatever timed out before it
+        return flakyWait && !(failure instanceof AssertionError) ? FailureClass.FLAKY_WAIT : FailureClass.PRODUCT_BUG;
+    }
+
+    private static boolean isInfrastructure(Throwable cause) {
+        if (cause instanceof NoSuchSessionException
+                || cause instanceof SessionNotCreatedException
+                || cause instanceof UnreachableBrowserException
+                || cause instanceof IOException
+                || cause instanceof UncheckedIOException) {
+            return true;
+        }
+        String message = cause.getMessage();
+        if (message == null) {
+            return false;
+        }
+        String lower = message.toLowerCase(Locale.ROOT);
+        for (String marker : INFRASTRUCTURE_MESSAGES) {
+            if (lower.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFlakyWait(Throwable cause) {
+        return cause instanceof TimeoutException
+                || cause instanceof StaleElementReferenceException
+                || cause instanceof NoSuchElementException
+                || cause instanceof ElementNotInteractableException
+                || cause instanceof ElementClickInterceptedException;
+    }
+}
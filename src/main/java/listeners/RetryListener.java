@@ -1,5 +1,7 @@
 package listeners;
 
+import driver.DriverManager;
+import listeners.FailureClassifier.FailureClass;
 import reporting.ExtentReportManager;
 import utils.ConfigManager;
 import org.slf4j.Logger;
@@ -11,6 +13,12 @@ import org.testng.annotations.ITestAnnotation;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class RetryListener implements IAnnotationTransformer {
     private static final Logger logger = LoggerFactory.getLogger(RetryListener.class);
@@ -20,26 +28,81 @@ public class RetryListener implements IAnnotationTransformer {
         annotation.setRetryAnalyzer(RetryAnalyzer.class);
     }
 
+    /**
+     * Retries only failures classified as retryable (infrastructure and flaky
+     * waits by default), within a retry time budget shared by the whole suite.
+     * A flaky wait keeps its session, which goes back to the pool when pooling
+     * is on; an infrastructure failure discards the session first.
+     */
     public static class RetryAnalyzer implements IRetryAnalyzer {
         private static final Logger logger = LoggerFactory.getLogger(RetryAnalyzer.class);
-        private int retryCount = 0;
         private static final int MAX_RETRY_COUNT = ConfigManager.getIntProperty("test.retry.count", 2);
+        private static final Set<FailureClass> RETRYABLE = parseClasses(
+                ConfigManager.getProperty("test.retry.classes", "INFRASTRUCTURE,FLAKY_WAIT"));
+        private static final long BUDGET_MILLIS =
+                TimeUnit.SECONDS.toMillis(ConfigManager.getIntProperty("test.retry.budget.seconds", 900));
+
+        // Time reserved for retries across the suite, charged at the failed attempt's duration
+        private static final AtomicLong budgetUsedMillis = new AtomicLong();
+        private static final Map<FailureClass, AtomicLong> retried = counters();
+        private static final Map<FailureClass, AtomicLong> notRetried = counters();
+        private static final AtomicLong deniedByBudget = new AtomicLong();
+
+        private int retryCount = 0;
 
         @Override
         public boolean retry(ITestResult result) {
-            if (retryCount < MAX_RETRY_COUNT) {
-                retryCount++;
-                String testName = result.getMethod().getMethodName();
-                logger.warn("Retrying test: {} (attempt {}/{})", testName, retryCount, MAX_RETRY_COUNT);
+            String testName = result.getMethod().getMethodName();
+            FailureClass failureClass = FailureClassifier.classify(result.getThrowable());
+
+            if (retryCount >= MAX_RETRY_COUNT) {
+                return false;
+            }
+            if (!RETRYABLE.contains(failureClass)) {
+                notRetried.get(failureClass).incrementAndGet();
+                logger.info("Not retrying {}: failure classified as {}", testName, failureClass);
+                return false;
+            }
+            if (!reserveBudget(result)) {
+                deniedByBudget.incrementAndGet();
+                logger.warn("Not retrying {}: suite retry budget of {} s is used up", testName,
+                        TimeUnit.MILLISECONDS.toSeconds(BUDGET_MILLIS));
+                return false;
+            }
+
+            retryCount++;
+            retried.get(failureClass).incrementAndGet();
+            logger.warn("Retrying test: {} (attempt {}/{}, {})", testName, retryCount, MAX_RETRY_COUNT, failureClass);
+            ExtentReportManager.logInfo("Retrying test: " + testName + " (attempt " + retryCount + "/"
+                    + MAX_RETRY_COUNT + ", " + failureClass + ")");
+
+            if (failureClass == FailureClass.INFRASTRUCTURE) {
+                // Never hand a suspect session to the retry or back to the pool
+                DriverManager.discardDriver();
+            }
 
-                ExtentReportManager.logInfo("Retrying test: " + testName + " (attempt " + retryCount + "/" + MAX_RETRY_COUNT + ")");
+            // Set the test result to skip for retry attempts
+            result.setStatus(ITestResult.SKIP);
 
-                // Set the test result to skip for retry attempts
-                result.setStatus(ITestResult.SKIP);
+            return true;
+        }
 
+        /**
+         * Charge the expected cost of a retry (the failed attempt's duration) against the suite budget
+         */
+        private static boolean reserveBudget(ITestResult result) {
+            if (BUDGET_MILLIS <= 0) {
                 return true;
             }
-            return false;
+            long cost = Math.max(0, result.getEndMillis() - result.getStartMillis());
+            long used;
+            do {
+                used = budgetUsedMillis.get();
+                if (used + cost > BUDGET_MILLIS) {
+                    return false;
+                }
+            } while (!budgetUsedMillis.compareAndSet(used, used + cost));
+            return true;
         }
 
         public int getRetryCount() {
@@ -49,5 +112,33 @@ public class RetryListener implements IAnnotationTransformer {
         public static int getMaxRetryCount() {
             return MAX_RETRY_COUNT;
         }
+
+        public static String getSummary() {
+            return String.format("Retries - Retried: %s, Not retryable: %s, Denied by budget: %d, Budget used: %d/%d s",
+                    retried, notRetried, deniedByBudget.get(),
+                    TimeUnit.MILLISECONDS.toSeconds(budgetUsedMillis.get()), TimeUnit.MILLISECONDS.toSeconds(BUDGET_MILLIS));
+        }
+
+        private static Set<FailureClass> parseClasses(String value) {
+            Set<FailureClass> classes = EnumSet.noneOf(FailureClass.class);
+            for (String name : value.split(",")) {
+                try {
+                    if (!name.trim().isEmpty()) {
+                        classes.add(FailureClass.valueOf(name.trim().toUpperCase()));
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Unknown failure class in test.retry.classes: {}", name);
+                }
+            }
+            return classes;
+        }
+
+        private static Map<FailureClass, AtomicLong> counters() {
+            Map<FailureClass, AtomicLong> counters = new EnumMap<>(FailureClass.class);
+            for (FailureClass failureClass : FailureClass.values()) {
+                counters.put(failureClass, new AtomicLong());
+            }
+            return counters;
+        }
     }
 }
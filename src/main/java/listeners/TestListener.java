@@ -6,6 +6,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.*;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 public class TestListener implements ITestListener, ISuiteListener {
     private static final Logger logger = LoggerFactory.getLogger(TestListener.class);
 
@@ -14,10 +18,10 @@ public class TestListener implements ITestListener, ISuiteListener {
         logger.info("Test suite started: {}", suite.getName());
         ExtentReportManager.logInfo("Test Suite: " + suite.getName() + " started");
 
-        // Set platform from suite parameters
+        // Scope the platform from suite parameters to this suite
         String platform = suite.getParameter("platform");
         if (platform != null) {
-            ConfigManager.setProperty("test.platform", platform);
+            ConfigManager.defineScope(suite.getName(), null, Collections.singletonMap("test.platform", platform));
             ExtentReportManager.logInfo("Platform set to: " + platform);
         }
     }
@@ -43,11 +47,9 @@ public class TestListener implements ITestListener, ISuiteListener {
     @Override
     public void onTestFailure(ITestResult result) {
         logger.error("Test failed: {}", getTestName(result), result.getThrowable());
+        // logFail attaches the failure point's screenshot, captured once
         ExtentReportManager.logFail("Test Method: " + getTestName(result) + " failed - " +
                 result.getThrowable().getMessage());
-
-        // Capture screenshot on failure
-        ExtentReportManager.attachScreenshot();
     }
 
     @Override
@@ -97,23 +99,26 @@ public class TestListener implements ITestListener, ISuiteListener {
         String deviceName = context.getCurrentXmlTest().getParameter("deviceName");
         String platformVersion = context.getCurrentXmlTest().getParameter("platformVersion");
 
+        Map<String, String> overrides = new HashMap<>();
         if (platform != null) {
-            ConfigManager.setProperty("test.platform", platform);
+            overrides.put("test.platform", platform);
         }
         if (deviceName != null) {
             if ("android".equalsIgnoreCase(platform)) {
-                ConfigManager.setProperty("android.device.name", deviceName);
+                overrides.put("android.device.name", deviceName);
             } else if ("ios".equalsIgnoreCase(platform)) {
-                ConfigManager.setProperty("ios.device.name", deviceName);
+                overrides.put("ios.device.name", deviceName);
             }
         }
         if (platformVersion != null) {
             if ("android".equalsIgnoreCase(platform)) {
-                ConfigManager.setProperty("android.platform.version", platformVersion);
+                overrides.put("android.platform.version", platformVersion);
             } else if ("ios".equalsIgnoreCase(platform)) {
-                ConfigManager.setProperty("ios.platform.version", platformVersion);
+                overrides.put("ios.platform.version", platformVersion);
             }
         }
+        // Each <test> gets its own overlay; TestRunner enters it on the threads that run it
+        ConfigManager.defineScope(context.getName(), ConfigManager.getScope(context.getSuite().getName()), overrides);
     }
 
     private void logTestStatistics(ITestContext context) {
@@ -0,0 +1,132 @@
+package pages;
+
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Explicit wait with adaptive polling: polls quickly at first, then backs off
+ * up to a maximum interval. Meant to run with implicit waits disabled so the
+ * timeout given here is the only one that applies. Every wait is timed so
+ * timeouts can be tuned from recorded data.
+ */
+public class AdaptiveWait {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveWait.class);
+
+    private static final long INITIAL_POLL_MILLIS = ConfigManager.getIntProperty("wait.poll.initial.ms", 50);
+    private static final long MAX_POLL_MILLIS = ConfigManager.getIntProperty("wait.poll.max.ms", 500);
+    private static final double BACKOFF = ConfigManager.getDoubleProperty("wait.poll.backoff", 1.5);
+
+    private static final Map<String, WaitStats> stats = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final Duration defaultTimeout;
+
+    public AdaptiveWait(WebDriver driver, Duration defaultTimeout) {
+        this.driver = driver;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    /**
+     * Timeout for a named element: wait.timeout.&lt;name&gt; in config, else the default
+     */
+    public Duration timeoutFor(String elementName) {
+        String key = "wait.timeout." + elementName.toLowerCase().replaceAll("[^a-z0-9]+", ".");
+        int seconds = ConfigManager.getIntProperty(key, -1);
+        return seconds >= 0 ? Duration.ofSeconds(seconds) : defaultTimeout;
+    }
+
+    public <T> T until(Function<? super WebDriver, T> condition, String description) {
+        return until(condition, description, timeoutFor(description));
+    }
+
+    /**
+     * Poll the condition until it returns a non-null, non-false value or the timeout expires
+     */
+    public <T> T until(Function<? super WebDriver, T> condition, String description, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long interval = INITIAL_POLL_MILLIS;
+        RuntimeException lastException = null;
+
+        while (true) {
+            try {
+                T value = condition.apply(driver);
+                if (value != null && !Boolean.FALSE.equals(value)) {
+                    record(description, start, false);
+                    return value;
+                }
+            } catch (NotFoundException | StaleElementReferenceException e) {
+                lastException = e;
+            }
+
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                record(description, start, true);
+                throw new TimeoutException("Timed out after " + timeout.toMillis() + " ms waiting for "
+                        + description, lastException);
+            }
+            sleep(Math.min(interval, remainingMillis));
+            interval = Math.min((long) (interval * BACKOFF), MAX_POLL_MILLIS);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException("Interrupted while waiting", e);
+        }
+    }
+
+    private static void record(String description, long startNanos, boolean timedOut) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        WaitStats waitStats = stats.computeIfAbsent(description, key -> new WaitStats());
+        waitStats.count.incrementAndGet();
+        waitStats.totalMillis.addAndGet(elapsedMillis);
+        waitStats.maxMillis.accumulateAndGet(elapsedMillis, Math::max);
+        if (timedOut) {
+            waitStats.timeouts.incrementAndGet();
+        }
+        logger.debug("Wait for '{}' took {} ms{}", description, elapsedMillis, timedOut ? " (timed out)" : "");
+    }
+
+    /**
+     * Recorded wait durations per element, slowest first
+     */
+    public static String getSummary() {
+        List<Map.Entry<String, WaitStats>> entries = new ArrayList<>(stats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().maxMillis.get(), a.getValue().maxMillis.get()));
+
+        StringBuilder summary = new StringBuilder("Wait Statistics");
+        for (Map.Entry<String, WaitStats> entry : entries) {
+            WaitStats waitStats = entry.getValue();
+            long count = waitStats.count.get();
+            summary.append(String.format("%n  %s - Waits: %d, Avg: %d ms, Max: %d ms, Timeouts: %d",
+                    entry.getKey(), count, count > 0 ? waitStats.totalMillis.get() / count : 0,
+                    waitStats.maxMillis.get(), waitStats.timeouts.get()));
+        }
+        return summary.toString();
+    }
+
+    private static class WaitStats {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+    }
+}
@@ -1,43 +1,83 @@
 package pages;
 
+import driver.CommandMetrics;
 import driver.DriverManager;
 import reporting.ExtentReportManager;
+import reporting.ReportVerbosity;
 import utils.ConfigManager;
 import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.PageFactory;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.By;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public abstract class BasePage {
     private static final Logger logger = LoggerFactory.getLogger(BasePage.class);
     protected AppiumDriver driver;
-    protected WebDriverWait wait;
+    protected AdaptiveWait wait;
+    protected final ElementCache elementCache = new ElementCache();
+    private ScrollEngine scrollEngine;
 
     protected static final int DEFAULT_TIMEOUT = ConfigManager.getIntProperty("test.timeout.explicit", 10);
+    private static final boolean GENERATED_LOCATORS = ConfigManager.getBooleanProperty("page.locators.generated", true);
 
     public BasePage() {
         this.driver = DriverManager.getDriver();
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_TIMEOUT));
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        CommandMetrics.setPage(getClass().getSimpleName());
+        this.wait = new AdaptiveWait(driver, Duration.ofSeconds(DEFAULT_TIMEOUT));
+        // Like the element cache, a snapshot never outlives the page object that took it
+        PageSnapshot.invalidate();
+        boolean cacheEnabled = ConfigManager.getBooleanProperty("element.cache.enabled", true);
+        if (GENERATED_LOCATORS && bindElements(
+                new PageElements(driver, cacheEnabled ? elementCache : null, getClass().getSimpleName()))) {
+            return;
+        }
+        // Reflective fallback. Zero lookup timeout: AdaptiveWait owns all waiting so timeouts never stack
+        if (cacheEnabled) {
+            PageFactory.initElements(new CachingFieldDecorator(driver, Duration.ZERO, elementCache), this);
+        } else {
+            PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ZERO), this);
+        }
+    }
+
+    /**
+     * Assign the page's locator fields from its generated locator table, one
+     * per field, e.g. {@code usernameField = LoginPageLocators.usernameField(elements);}
+     * then {@code return true;}. Runs from the constructor, so the fields must
+     * not have initializers. Returning false falls back to PageFactory.
+     */
+    protected boolean bindElements(PageElements elements) {
+        return false;
     }
 
     /**
      * Wait for element to be visible
      */
     protected WebElement waitForElementToBeVisible(WebElement element) {
+        return waitForElementToBeVisible(element, "element");
+    }
+
+    protected WebElement waitForElementToBeVisible(WebElement element, String elementName) {
         try {
-            WebElement visibleElement = wait.until(ExpectedConditions.visibilityOf(element));
-            ExtentReportManager.logInfo("Element is visible: " + element.toString());
+            WebElement visibleElement = wait.until(ExpectedConditions.visibilityOf(element), elementName);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element is visible: " + elementName);
             return visibleElement;
         } catch (Exception e) {
-            ExtentReportManager.logFail("Element not visible: " + element.toString());
+            ExtentReportManager.logFail("Element not visible: " + elementName);
             logger.error("Element not visible", e);
             throw e;
         }
@@ -47,12 +87,16 @@ public abstract class BasePage {
      * Wait for element to be clickable
      */
     protected WebElement waitForElementToBeClickable(WebElement element) {
+        return waitForElementToBeClickable(element, "element");
+    }
+
+    protected WebElement waitForElementToBeClickable(WebElement element, String elementName) {
         try {
-            WebElement clickableElement = wait.until(ExpectedConditions.elementToBeClickable(element));
-            ExtentReportManager.logInfo("Element is clickable: " + element.toString());
+            WebElement clickableElement = wait.until(ExpectedConditions.elementToBeClickable(element), elementName);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element is clickable: " + elementName);
             return clickableElement;
         } catch (Exception e) {
-            ExtentReportManager.logFail("Element not clickable: " + element.toString());
+            ExtentReportManager.logFail("Element not clickable: " + elementName);
             logger.error("Element not clickable", e);
             throw e;
         }
@@ -62,10 +106,10 @@ public abstract class BasePage {
      * Click element with wait
      */
     protected void clickElement(WebElement element, String elementName) {
+        PageSnapshot.invalidate();
         try {
-            waitForElementToBeClickable(element).click();
-            ExtentReportManager.logPass("Clicked on: " + elementName);
-            logger.info("Clicked on element: {}", elementName);
+            waitForElementToBeClickable(element, elementName).click();
+            ExtentReportManager.logPass(ReportVerbosity.ACTIONS, logger, () -> "Clicked on: " + elementName);
         } catch (Exception e) {
             ExtentReportManager.logFail("Failed to click on: " + elementName + " - " + e.getMessage());
             logger.error("Failed to click on element: {}", elementName, e);
@@ -77,11 +121,11 @@ public abstract class BasePage {
      * Send text to element
      */
     protected void sendTextToElement(WebElement element, String text, String elementName) {
+        PageSnapshot.invalidate();
         try {
-            waitForElementToBeVisible(element).clear();
+            waitForElementToBeVisible(element, elementName).clear();
             element.sendKeys(text);
-            ExtentReportManager.logPass("Entered text '" + text + "' in: " + elementName);
-            logger.info("Entered text '{}' in element: {}", text, elementName);
+            ExtentReportManager.logPass(ReportVerbosity.ACTIONS, logger, () -> "Entered text '" + text + "' in: " + elementName);
         } catch (Exception e) {
             ExtentReportManager.logFail("Failed to enter text in: " + elementName + " - " + e.getMessage());
             logger.error("Failed to enter text in element: {}", elementName, e);
@@ -94,9 +138,10 @@ public abstract class BasePage {
      */
     protected String getTextFromElement(WebElement element, String elementName) {
         try {
-            String text = waitForElementToBeVisible(element).getText();
-            ExtentReportManager.logInfo("Got text '" + text + "' from: " + elementName);
-            logger.info("Got text '{}' from element: {}", text, elementName);
+            // Visibility and text read together on every poll
+            String text = waitForElementState(element, elementName, ElementState::isDisplayed,
+                    ElementState.Property.DISPLAYED, ElementState.Property.TEXT).getText();
+            ExtentReportManager.logInfo(ReportVerbosity.ACTIONS, logger, () -> "Got text '" + text + "' from: " + elementName);
             return text;
         } catch (Exception e) {
             ExtentReportManager.logFail("Failed to get text from: " + elementName + " - " + e.getMessage());
@@ -111,26 +156,207 @@ public abstract class BasePage {
     protected boolean isElementDisplayed(WebElement element, String elementName) {
         try {
             boolean isDisplayed = element.isDisplayed();
-            ExtentReportManager.logInfo("Element '" + elementName + "' display status: " + isDisplayed);
-            logger.info("Element '{}' display status: {}", elementName, isDisplayed);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger,
+                    () -> "Element '" + elementName + "' display status: " + isDisplayed);
             return isDisplayed;
         } catch (Exception e) {
-            ExtentReportManager.logInfo("Element '" + elementName + "' is not displayed");
-            logger.info("Element '{}' is not displayed", elementName);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element '" + elementName + "' is not displayed");
+            return false;
+        }
+    }
+
+    /**
+     * Check display status from the screen snapshot, so several checks share one round-trip
+     */
+    protected boolean isElementDisplayed(By locator, String elementName) {
+        boolean isDisplayed = snapshot().isDisplayed(locator);
+        ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger,
+                () -> "Element '" + elementName + "' display status: " + isDisplayed);
+        return isDisplayed;
+    }
+
+    /**
+     * Snapshot of the current screen for read-only checks: one getPageSource
+     * answers any number of presence, visibility, text and attribute queries.
+     * Clicks, typing, scrolling and navigation discard it.
+     */
+    protected PageSnapshot snapshot() {
+        return PageSnapshot.of(driver);
+    }
+
+    /**
+     * Read several properties of an element together: from the screen snapshot
+     * when the locator allows it, else with the commands issued concurrently
+     */
+    protected ElementState getElementState(By locator, ElementState.Property... properties) {
+        Set<ElementState.Property> requested = requested(properties);
+        ElementState state = snapshot().getState(locator, requested);
+        if (state != null) {
+            return state;
+        }
+        List<WebElement> elements = findElementsQuietly(locator);
+        return elements.isEmpty() ? ElementState.absent() : ElementState.fetch(elements.get(0), requested);
+    }
+
+    /**
+     * Read several properties of a page field with the commands issued concurrently
+     */
+    protected ElementState getElementState(WebElement element, ElementState.Property... properties) {
+        return ElementState.fetch(element, requested(properties));
+    }
+
+    /**
+     * Poll until the element's state satisfies the condition; each poll reads every property at once
+     */
+    protected ElementState waitForElementState(By locator, String elementName, Predicate<ElementState> condition,
+                                               ElementState.Property... properties) {
+        int[] polls = {0};
+        return wait.until(d -> {
+            // Later polls must see the screen as it is now, not the snapshot from the last poll
+            if (polls[0]++ > 0) {
+                PageSnapshot.invalidate();
+            }
+            ElementState state = getElementState(locator, properties);
+            return condition.test(state) ? state : null;
+        }, elementName);
+    }
+
+    protected ElementState waitForElementState(WebElement element, String elementName, Predicate<ElementState> condition,
+                                               ElementState.Property... properties) {
+        return wait.until(d -> {
+            ElementState state = getElementState(element, properties);
+            return condition.test(state) ? state : null;
+        }, elementName);
+    }
+
+    private static Set<ElementState.Property> requested(ElementState.Property... properties) {
+        if (properties.length == 0) {
+            throw new IllegalArgumentException("No element properties requested");
+        }
+        Set<ElementState.Property> requested = EnumSet.noneOf(ElementState.Property.class);
+        Collections.addAll(requested, properties);
+        return requested;
+    }
+
+    /**
+     * Pick the locator for the current platform
+     */
+    protected By byPlatform(By androidLocator, By iosLocator) {
+        return driver instanceof IOSDriver ? iosLocator : androidLocator;
+    }
+
+    /**
+     * findElements never throws for a missing element, so absence costs one round-trip
+     */
+    protected List<WebElement> findElementsQuietly(By locator) {
+        if (locator == null) {
+            return Collections.emptyList();
+        }
+        try {
+            return driver.findElements(locator);
+        } catch (WebDriverException e) {
+            logger.debug("findElements failed for {}: {}", locator, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Check presence right now without waiting or throwing
+     */
+    protected boolean isElementPresent(By locator, String elementName) {
+        boolean isPresent = !findElementsQuietly(locator).isEmpty();
+        ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element '" + elementName + "' present: " + isPresent);
+        return isPresent;
+    }
+
+    /**
+     * Wait up to the element's timeout for it to appear; returns false instead of throwing
+     */
+    protected boolean waitForElementPresent(By locator, String elementName) {
+        try {
+            wait.until(d -> !findElementsQuietly(locator).isEmpty(), elementName);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element '" + elementName + "' is present");
+            return true;
+        } catch (TimeoutException e) {
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element '" + elementName + "' is not present");
+            return false;
+        }
+    }
+
+    /**
+     * Wait up to the element's timeout for it to be displayed; returns false
+     * instead of throwing. A false result always costs the full timeout, so
+     * use {@link #isElementAbsentWithin} when absence is the expected outcome.
+     */
+    protected boolean waitForElementVisible(By locator, String elementName) {
+        try {
+            waitForElementState(locator, elementName, ElementState::isDisplayed, ElementState.Property.DISPLAYED);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element '" + elementName + "' is displayed");
+            return true;
+        } catch (TimeoutException e) {
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element '" + elementName + "' is not displayed");
+            return false;
+        }
+    }
+
+    /**
+     * Check that the element is gone, or disappears, within the given time
+     */
+    protected boolean isElementAbsentWithin(By locator, String elementName, Duration within) {
+        try {
+            wait.until(d -> findElementsQuietly(locator).isEmpty(), elementName + " absent", within);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element '" + elementName + "' is absent");
+            return true;
+        } catch (TimeoutException e) {
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger,
+                    () -> "Element '" + elementName + "' still present after " + within.toMillis() + " ms");
             return false;
         }
     }
 
     /**
-     * Scroll to element (platform agnostic)
+     * Fail unless the element is absent within the given number of milliseconds
+     */
+    protected void assertElementAbsentWithin(By locator, String elementName, long withinMillis) {
+        if (!isElementAbsentWithin(locator, elementName, Duration.ofMillis(withinMillis))) {
+            throw new AssertionError("Element '" + elementName + "' should be absent within " + withinMillis + " ms");
+        }
+    }
+
+    /**
+     * Scroll the list until the element is on screen (platform agnostic)
      */
     protected void scrollToElement(WebElement element, String elementName) {
+        // Generated fields know their locator, so the target can be checked in the snapshot
+        if (element instanceof LocatedElement) {
+            scrollToElement(((LocatedElement) element).getLocator(), elementName);
+            return;
+        }
+        scroll(snapshot -> isDisplayedQuietly(element), elementName);
+    }
+
+    /**
+     * Scroll the list down until an element matching the locator is on screen, and return it
+     */
+    protected WebElement scrollToElement(By locator, String elementName) {
+        scroll(snapshot -> snapshot.isDisplayed(locator), elementName);
+        return driver.findElement(locator);
+    }
+
+    private void scroll(Predicate<PageSnapshot> visible, String elementName) {
+        PageSnapshot.invalidate();
         try {
-            // Use JavaScript executor for scrolling
-            ((org.openqa.selenium.JavascriptExecutor) driver).executeScript(
-                    "arguments[0].scrollIntoView({behavior: 'smooth', block: 'center'});", element);
-            ExtentReportManager.logInfo("Scrolled to element: " + elementName);
-            logger.info("Scrolled to element: {}", elementName);
+            if (scrollEngine == null) {
+                scrollEngine = new ScrollEngine(driver);
+            }
+            ScrollEngine.Result result = scrollEngine.scrollUntil(visible, ScrollEngine.Direction.DOWN);
+            elementCache.invalidateAll();
+            if (!result.isFound()) {
+                throw new NoSuchElementException(elementName + " not found: " + result);
+            }
+            ExtentReportManager.logInfo(ReportVerbosity.ACTIONS, logger,
+                    () -> "Scrolled to element: " + elementName + " (" + result.getSwipes() + " swipes, "
+                            + result.getMillis() + " ms)");
         } catch (Exception e) {
             ExtentReportManager.logFail("Failed to scroll to element: " + elementName + " - " + e.getMessage());
             logger.error("Failed to scroll to element: {}", elementName, e);
@@ -138,14 +364,21 @@ public abstract class BasePage {
         }
     }
 
+    private static boolean isDisplayedQuietly(WebElement element) {
+        try {
+            return element.isDisplayed();
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+
     /**
      * Wait for element to disappear
      */
     protected void waitForElementToDisappear(WebElement element, String elementName) {
         try {
-            wait.until(ExpectedConditions.invisibilityOf(element));
-            ExtentReportManager.logInfo("Element disappeared: " + elementName);
-            logger.info("Element disappeared: {}", elementName);
+            wait.until(ExpectedConditions.invisibilityOf(element), elementName);
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Element disappeared: " + elementName);
         } catch (Exception e) {
             ExtentReportManager.logFail("Element did not disappear: " + elementName + " - " + e.getMessage());
             logger.error("Element did not disappear: {}", elementName, e);
@@ -163,7 +396,8 @@ public abstract class BasePage {
             if (title == null || title.isEmpty()) {
                 title = driver.getCurrentUrl(); // Fallback
             }
-            ExtentReportManager.logInfo("Current page title: " + title);
+            String pageTitle = title;
+            ExtentReportManager.logInfo(ReportVerbosity.DEBUG, logger, () -> "Current page title: " + pageTitle);
             return title;
         } catch (Exception e) {
             logger.error("Failed to get page title", e);
@@ -177,8 +411,9 @@ public abstract class BasePage {
     public void navigateBack() {
         try {
             driver.navigate().back();
-            ExtentReportManager.logInfo("Navigated back");
-            logger.info("Navigated back");
+            elementCache.invalidateAll();
+            PageSnapshot.invalidate();
+            ExtentReportManager.logInfo(ReportVerbosity.ACTIONS, logger, () -> "Navigated back");
         } catch (Exception e) {
             ExtentReportManager.logFail("Failed to navigate back: " + e.getMessage());
             logger.error("Failed to navigate back", e);
@@ -192,8 +427,9 @@ public abstract class BasePage {
     public void refresh() {
         try {
             driver.navigate().refresh();
-            ExtentReportManager.logInfo("Page refreshed");
-            logger.info("Page refreshed");
+            elementCache.invalidateAll();
+            PageSnapshot.invalidate();
+            ExtentReportManager.logInfo(ReportVerbosity.ACTIONS, logger, () -> "Page refreshed");
         } catch (Exception e) {
             ExtentReportManager.logFail("Failed to refresh page: " + e.getMessage());
             logger.error("Failed to refresh page", e);
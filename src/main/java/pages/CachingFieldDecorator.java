@@ -0,0 +1,137 @@
+package pages;
+
+import driver.CommandMetrics;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AppiumElementLocatorFactory;
+import io.appium.java_client.pagefactory.DefaultElementByBuilder;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.pagefactory.DefaultFieldDecorator;
+import org.openqa.selenium.support.pagefactory.ElementLocator;
+import org.openqa.selenium.support.pagefactory.ElementLocatorFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Field decorator that resolves Appium locators once per page and reuses the
+ * element ID for later calls. A stale element is evicted and looked up again
+ * transparently, once per call. Commands are attributed to the declaring page
+ * in {@link CommandMetrics}.
+ */
+public class CachingFieldDecorator extends DefaultFieldDecorator {
+
+    public CachingFieldDecorator(AppiumDriver driver, Duration lookupTimeout, ElementCache cache) {
+        super(createLocatorFactory(driver, lookupTimeout, cache));
+    }
+
+    private static ElementLocatorFactory createLocatorFactory(AppiumDriver driver, Duration lookupTimeout,
+                                                              ElementCache cache) {
+        String platform = String.valueOf(driver.getCapabilities().getCapability("platformName"));
+        String automation = String.valueOf(driver.getCapabilities().getCapability("automationName"));
+        AppiumElementLocatorFactory appiumFactory = new AppiumElementLocatorFactory(
+                driver, lookupTimeout, new DefaultElementByBuilder(platform, automation));
+        return field -> {
+            ElementLocator locator = appiumFactory.createLocator(field);
+            return locator == null ? null
+                    : new CachingElementLocator(locator, field.getDeclaringClass().getSimpleName(), field.getName(), cache);
+        };
+    }
+
+    @Override
+    protected WebElement proxyForLocator(ClassLoader loader, ElementLocator locator) {
+        InvocationHandler handler = new CachingElementHandler((CachingElementLocator) locator);
+        return (WebElement) Proxy.newProxyInstance(loader,
+                new Class[]{WebElement.class, WrapsElement.class, Locatable.class}, handler);
+    }
+
+    private static class CachingElementLocator implements ElementLocator {
+        private final ElementLocator delegate;
+        private final String page;
+        private final String key;
+        private final ElementCache cache;
+
+        private CachingElementLocator(ElementLocator delegate, String page, String key, ElementCache cache) {
+            this.delegate = delegate;
+            this.page = page;
+            this.key = key;
+            this.cache = cache;
+        }
+
+        @Override
+        public WebElement findElement() {
+            return cache.get(key, delegate::findElement);
+        }
+
+        @Override
+        public List<WebElement> findElements() {
+            return delegate.findElements();
+        }
+
+        private void invalidate() {
+            cache.invalidate(key);
+        }
+
+        @Override
+        public String toString() {
+            return key + " (" + delegate + ")";
+        }
+    }
+
+    private static class CachingElementHandler implements InvocationHandler {
+        private static final Set<String> MUTATING_METHODS = new HashSet<>(Arrays.asList("click", "submit", "sendKeys", "clear"));
+
+        private final CachingElementLocator locator;
+
+        private CachingElementHandler(CachingElementLocator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            // Describing the proxy must never trigger a lookup
+            if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
+                return "Proxy element for: " + locator;
+            }
+            String previousPage = CommandMetrics.enterPage(locator.page);
+            try {
+                return invokeCached(method, args);
+            } finally {
+                CommandMetrics.restorePage(previousPage);
+            }
+        }
+
+        private Object invokeCached(Method method, Object[] args) throws Throwable {
+            if ("getWrappedElement".equals(method.getName())) {
+                return locator.findElement();
+            }
+            if (MUTATING_METHODS.contains(method.getName())) {
+                PageSnapshot.invalidate();
+            }
+
+            try {
+                return method.invoke(locator.findElement(), args);
+            } catch (InvocationTargetException e) {
+                if (!(e.getCause() instanceof StaleElementReferenceException)) {
+                    throw e.getCause();
+                }
+            }
+
+            locator.invalidate();
+            try {
+                return method.invoke(locator.findElement(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Equivalent locators for one field on one platform, e.g. an iOS predicate
+ * and the XPath it replaces. Matches with the first candidate that finds
+ * anything, trying them in the order {@link LocatorProfile} has learned is
+ * fastest. When profiling, every candidate is tried and timed so the
+ * ranking stays current. Generated for fields with several
+ * {@code @AndroidFindBy}/{@code @iOSXCUITFindBy} under
+ * {@code @HowToUseLocators(... = ALL_POSSIBLE)}.
+ */
+public class CandidateBy extends By {
+    private final String field;
+    private final List<By> candidates;
+
+    /**
+     * @param field profile key, e.g. "LoginPage.homeScreen@ios"
+     */
+    public CandidateBy(String field, By... candidates) {
+        this.field = field;
+        this.candidates = Collections.unmodifiableList(Arrays.asList(candidates));
+    }
+
+    @Override
+    public List<WebElement> findElements(SearchContext context) {
+        List<WebElement> match = Collections.emptyList();
+        for (By candidate : LocatorProfile.preferredOrder(field, candidates)) {
+            long start = System.nanoTime();
+            List<WebElement> elements = context.findElements(candidate);
+            LocatorProfile.record(field, candidate, System.nanoTime() - start, !elements.isEmpty());
+            if (match.isEmpty() && !elements.isEmpty()) {
+                match = elements;
+                if (!LocatorProfile.isProfiling()) {
+                    break;
+                }
+            }
+        }
+        return match;
+    }
+
+    List<By> getCandidates() {
+        return candidates;
+    }
+
+    @Override
+    public String toString() {
+        return "CandidateBy " + field + ": " + candidates;
+    }
+}
@@ -0,0 +1,53 @@
+package pages;
+
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resolved elements for one page instance (and therefore one session), keyed
+ * by field name. Entries are dropped on navigation or when an element goes stale.
+ */
+public class ElementCache {
+    private static final AtomicLong totalHits = new AtomicLong();
+    private static final AtomicLong totalMisses = new AtomicLong();
+    private static final AtomicLong totalInvalidations = new AtomicLong();
+
+    private final Map<String, WebElement> elements = new ConcurrentHashMap<>();
+
+    /**
+     * Return the cached element, looking it up only on a miss. Failed lookups are not cached.
+     */
+    WebElement get(String key, Supplier<WebElement> lookup) {
+        WebElement element = elements.get(key);
+        if (element != null) {
+            totalHits.incrementAndGet();
+            return element;
+        }
+        totalMisses.incrementAndGet();
+        element = lookup.get();
+        elements.put(key, element);
+        return element;
+    }
+
+    void invalidate(String key) {
+        if (elements.remove(key) != null) {
+            totalInvalidations.incrementAndGet();
+        }
+    }
+
+    public void invalidateAll() {
+        totalInvalidations.addAndGet(elements.size());
+        elements.clear();
+    }
+
+    public static String getSummary() {
+        long hits = totalHits.get();
+        long lookups = hits + totalMisses.get();
+        return String.format("Element Cache - Hits: %d, Misses: %d, Invalidations: %d, Hit rate: %.0f%%",
+                hits, totalMisses.get(), totalInvalidations.get(), lookups > 0 ? 100.0 * hits / lookups : 0.0);
+    }
+}
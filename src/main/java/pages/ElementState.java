@@ -0,0 +1,210 @@
+package pages;
+
+import driver.CommandMetrics;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import utils.ConfigManager;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Several properties of one element read together. Taken from the screen
+ * snapshot when the locator can be answered there (one getPageSource for
+ * everything), otherwise fetched from the element with the individual
+ * commands issued concurrently, so the round-trips overlap instead of
+ * adding up. The reader threads are shared by all test threads and never
+ * queue: when every one is busy, a read runs on the calling thread, so a
+ * busy parallel run degrades to sequential reads, never to waiting on
+ * another scenario's reads.
+ */
+public class ElementState {
+
+    public enum Property {
+        DISPLAYED, ENABLED, SELECTED, TEXT, RECT
+    }
+
+    private static final int THREADS = ConfigManager.getIntProperty("element.state.threads", 4);
+    private static final AtomicLong snapshotReads = new AtomicLong();
+    private static final AtomicLong elementReads = new AtomicLong();
+    private static final AtomicLong inlineReads = new AtomicLong();
+    private static volatile ExecutorService executor;
+
+    private static final ElementState ABSENT = new ElementState(false, new EnumMap<>(Property.class));
+
+    private final boolean present;
+    private final Map<Property, Object> values;
+
+    ElementState(boolean present, Map<Property, Object> values) {
+        this.present = present;
+        this.values = values;
+    }
+
+    static ElementState absent() {
+        return ABSENT;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    public boolean isDisplayed() {
+        return present && (Boolean) value(Property.DISPLAYED);
+    }
+
+    public boolean isEnabled() {
+        return present && (Boolean) value(Property.ENABLED);
+    }
+
+    public boolean isSelected() {
+        return present && (Boolean) value(Property.SELECTED);
+    }
+
+    /**
+     * Element text, or null if the element is absent
+     */
+    public String getText() {
+        return present ? (String) value(Property.TEXT) : null;
+    }
+
+    /**
+     * Element bounds, or null if the element is absent
+     */
+    public Rectangle getRect() {
+        return present ? (Rectangle) value(Property.RECT) : null;
+    }
+
+    private Object value(Property property) {
+        if (!values.containsKey(property)) {
+            throw new IllegalStateException(property + " was not requested for this element state");
+        }
+        return values.get(property);
+    }
+
+    @Override
+    public String toString() {
+        return present ? "ElementState" + values : "ElementState[absent]";
+    }
+
+    static void countSnapshotRead() {
+        snapshotReads.incrementAndGet();
+    }
+
+    /**
+     * Read the properties from a live element, concurrently when there is more than one
+     */
+    static ElementState fetch(WebElement element, Set<Property> properties) {
+        try {
+            return fetchOnce(unwrap(element), properties);
+        } catch (StaleElementReferenceException e) {
+            // A call through the page field evicts the stale element and looks it up again
+            element.isDisplayed();
+            return fetchOnce(unwrap(element), properties);
+        }
+    }
+
+    /**
+     * Resolve a page field once up front so concurrent calls don't each look it up
+     */
+    private static WebElement unwrap(WebElement element) {
+        return element instanceof WrapsElement ? ((WrapsElement) element).getWrappedElement() : element;
+    }
+
+    private static ElementState fetchOnce(WebElement element, Set<Property> properties) {
+        elementReads.incrementAndGet();
+        Map<Property, Object> values = new EnumMap<>(Property.class);
+        List<Property> requested = new ArrayList<>(properties);
+        if (requested.size() == 1) {
+            values.put(requested.get(0), read(element, requested.get(0)));
+            return new ElementState(true, values);
+        }
+
+        // The caller's thread reads the first property while the pool reads the rest, in the caller's
+        // config scope and with its commands counted against the caller's scenario and page
+        List<Future<Object>> futures = new ArrayList<>();
+        for (Property property : requested.subList(1, requested.size())) {
+            Callable<Object> task = CommandMetrics.inCurrentContext(ConfigManager.inCurrentScope(() -> read(element, property)));
+            futures.add(getExecutor().submit(task));
+        }
+        values.put(requested.get(0), read(element, requested.get(0)));
+        for (int i = 0; i < futures.size(); i++) {
+            values.put(requested.get(i + 1), await(futures.get(i)));
+        }
+        return new ElementState(true, values);
+    }
+
+    private static Object read(WebElement element, Property property) {
+        switch (property) {
+            case DISPLAYED:
+                return element.isDisplayed();
+            case ENABLED:
+                return element.isEnabled();
+            case SELECTED:
+                return element.isSelected();
+            case TEXT:
+                return element.getText();
+            case RECT:
+                return element.getRect();
+            default:
+                throw new IllegalArgumentException("Unknown property " + property);
+        }
+    }
+
+    private static Object await(Future<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Interrupted while reading element state", e);
+        } catch (ExecutionException e) {
+            // Surface driver exceptions as they are so waits and stale handling still see them
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Reading element state failed", e.getCause());
+        }
+    }
+
+    private static ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (ElementState.class) {
+                if (executor == null) {
+                    AtomicInteger counter = new AtomicInteger();
+                    // No queue: a read is handed to an idle thread or, when all are busy, run by the caller
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+                            new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "element-state-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, (task, rejectedBy) -> {
+                        inlineReads.incrementAndGet();
+                        task.run();
+                    });
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public static String getSummary() {
+        return String.format("Element State - From snapshot: %d, From element: %d, Reads run inline: %d",
+                snapshotReads.get(), elementReads.get(), inlineReads.get());
+    }
+}
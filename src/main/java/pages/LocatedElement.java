@@ -0,0 +1,222 @@
+package pages;
+
+import driver.CommandMetrics;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Coordinates;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Page field element bound by a generated locator table. Plain delegation
+ * replaces the decorator's dynamic proxy: the element is resolved on first
+ * use (through the page cache when there is one) and a stale element is
+ * evicted and looked up again, once per call. Lookups are timed into
+ * {@link LocatorProfile} when profiling. Actions that can change the screen
+ * discard the thread's {@link PageSnapshot}. Commands are attributed to the
+ * declaring page in {@link CommandMetrics}.
+ */
+class LocatedElement implements WebElement, WrapsElement, Locatable {
+    private final WebDriver driver;
+    private final String page;
+    private final String name;
+    private final String profileKey;
+    private final By locator;
+    private final ElementCache cache;
+
+    LocatedElement(WebDriver driver, String page, String name, String profileKey, By locator, ElementCache cache) {
+        this.driver = driver;
+        this.page = page;
+        this.name = name;
+        this.profileKey = profileKey;
+        this.locator = locator;
+        this.cache = cache;
+    }
+
+    private WebElement resolve() {
+        return cache != null ? cache.get(name, this::find) : find();
+    }
+
+    private WebElement find() {
+        // Candidate locators time each of their candidates themselves
+        if (!LocatorProfile.isProfiling() || locator instanceof CandidateBy) {
+            return driver.findElement(locator);
+        }
+        long start = System.nanoTime();
+        boolean found = false;
+        try {
+            WebElement element = driver.findElement(locator);
+            found = true;
+            return element;
+        } finally {
+            LocatorProfile.record(profileKey, locator, System.nanoTime() - start, found);
+        }
+    }
+
+    private <T> T call(Function<WebElement, T> action) {
+        String previousPage = CommandMetrics.enterPage(page);
+        try {
+            return action.apply(resolve());
+        } catch (StaleElementReferenceException e) {
+            if (cache == null) {
+                throw e;
+            }
+            cache.invalidate(name);
+            return action.apply(resolve());
+        } finally {
+            CommandMetrics.restorePage(previousPage);
+        }
+    }
+
+    private void run(Consumer<WebElement> action) {
+        call(element -> {
+            action.accept(element);
+            return null;
+        });
+    }
+
+    By getLocator() {
+        return locator;
+    }
+
+    @Override
+    public WebElement getWrappedElement() {
+        return call(element -> element);
+    }
+
+    @Override
+    public Coordinates getCoordinates() {
+        return call(element -> ((Locatable) element).getCoordinates());
+    }
+
+    @Override
+    public void click() {
+        PageSnapshot.invalidate();
+        run(WebElement::click);
+    }
+
+    @Override
+    public void submit() {
+        PageSnapshot.invalidate();
+        run(WebElement::submit);
+    }
+
+    @Override
+    public void sendKeys(CharSequence... keysToSend) {
+        PageSnapshot.invalidate();
+        run(element -> element.sendKeys(keysToSend));
+    }
+
+    @Override
+    public void clear() {
+        PageSnapshot.invalidate();
+        run(WebElement::clear);
+    }
+
+    @Override
+    public String getTagName() {
+        return call(WebElement::getTagName);
+    }
+
+    @Override
+    public String getDomProperty(String propertyName) {
+        return call(element -> element.getDomProperty(propertyName));
+    }
+
+    @Override
+    public String getDomAttribute(String attributeName) {
+        return call(element -> element.getDomAttribute(attributeName));
+    }
+
+    @Override
+    public String getAttribute(String attributeName) {
+        return call(element -> element.getAttribute(attributeName));
+    }
+
+    @Override
+    public String getAriaRole() {
+        return call(WebElement::getAriaRole);
+    }
+
+    @Override
+    public String getAccessibleName() {
+        return call(WebElement::getAccessibleName);
+    }
+
+    @Override
+    public boolean isSelected() {
+        return call(WebElement::isSelected);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return call(WebElement::isEnabled);
+    }
+
+    @Override
+    public String getText() {
+        return call(WebElement::getText);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return call(element -> element.findElements(by));
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        return call(element -> element.findElement(by));
+    }
+
+    @Override
+    public SearchContext getShadowRoot() {
+        return call(WebElement::getShadowRoot);
+    }
+
+    @Override
+    public boolean isDisplayed() {
+        return call(WebElement::isDisplayed);
+    }
+
+    @Override
+    public Point getLocation() {
+        return call(WebElement::getLocation);
+    }
+
+    @Override
+    public Dimension getSize() {
+        return call(WebElement::getSize);
+    }
+
+    @Override
+    public Rectangle getRect() {
+        return call(WebElement::getRect);
+    }
+
+    @Override
+    public String getCssValue(String propertyName) {
+        return call(element -> element.getCssValue(propertyName));
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return call(element -> element.getScreenshotAs(target));
+    }
+
+    @Override
+    public String toString() {
+        // Describing the element must never trigger a lookup
+        return "Located element for: " + name + " (" + locator + ")";
+    }
+}
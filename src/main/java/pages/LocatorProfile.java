@@ -0,0 +1,165 @@
+package pages;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.By;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lookup latency per page field and locator, keyed like
+ * "LoginPage.homeScreen@ios". Candidate locators ({@link CandidateBy}) always
+ * record here and read it back to try the fastest working candidate first;
+ * with locator.profile.enabled every field lookup is timed as well. The
+ * table persists under test-output/history so what was learned carries over
+ * between runs.
+ */
+public class LocatorProfile {
+    private static final Logger logger = LoggerFactory.getLogger(LocatorProfile.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final boolean PROFILING = ConfigManager.getBooleanProperty("locator.profile.enabled", false);
+    private static final String PATH = ConfigManager.getProperty("locator.profile.path",
+            "test-output/history/locator-profile.json");
+    private static final long SLOW_MILLIS = ConfigManager.getIntProperty("locator.profile.slow.ms", 500);
+    private static final double SMOOTHING = 0.3;
+
+    private static final Map<String, Map<String, Stats>> fields = load();
+    private static final Set<String> warnedSlow = ConcurrentHashMap.newKeySet();
+
+    /**
+     * True when every field lookup should be timed, and candidates probed exhaustively
+     */
+    public static boolean isProfiling() {
+        return PROFILING;
+    }
+
+    private static Map<String, Map<String, Stats>> load() {
+        Map<String, Map<String, Stats>> loaded = new ConcurrentHashMap<>();
+        File file = new File(PATH);
+        if (!file.exists()) {
+            return loaded;
+        }
+        try {
+            Map<String, HashMap<String, Stats>> stored = mapper.readValue(file,
+                    new TypeReference<HashMap<String, HashMap<String, Stats>>>() {
+                    });
+            stored.forEach((field, locators) -> loaded.put(field, new ConcurrentHashMap<>(locators)));
+            logger.info("Loaded locator profile for {} fields", stored.size());
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable locator profile {}: {}", PATH, e.getMessage());
+        }
+        return loaded;
+    }
+
+    static void record(String field, By locator, long nanos, boolean found) {
+        double millis = nanos / 1_000_000.0;
+        Stats stats = fields.computeIfAbsent(field, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(locator.toString(), key -> new Stats());
+        synchronized (stats) {
+            stats.lookups++;
+            if (found) {
+                stats.avgMillis = stats.found == 0 ? millis : SMOOTHING * millis + (1 - SMOOTHING) * stats.avgMillis;
+                stats.found++;
+            }
+            stats.maxMillis = Math.max(stats.maxMillis, millis);
+        }
+        if (found && stats.avgMillis > SLOW_MILLIS && warnedSlow.add(field + " " + locator)) {
+            logger.warn("Slow locator for {}: {} averages {} ms", field, locator, Math.round(stats.avgMillis));
+        }
+    }
+
+    /**
+     * Candidates in the order to try them: proven ones fastest first, then untried ones in declared
+     * order, then ones that never matched
+     */
+    static List<By> preferredOrder(String field, List<By> candidates) {
+        Map<String, Stats> known = fields.get(field);
+        if (known == null) {
+            return candidates;
+        }
+        List<By> ordered = new ArrayList<>(candidates);
+        ordered.sort((a, b) -> Double.compare(rank(known.get(a.toString())), rank(known.get(b.toString()))));
+        return ordered;
+    }
+
+    private static double rank(Stats stats) {
+        if (stats == null) {
+            return Double.MAX_VALUE / 2;
+        }
+        return stats.found > 0 ? stats.avgMillis : Double.MAX_VALUE;
+    }
+
+    public static synchronized void save() {
+        if (fields.isEmpty()) {
+            return;
+        }
+        try {
+            File target = new File(PATH);
+            target.getParentFile().mkdirs();
+            File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+            Map<String, Map<String, Stats>> snapshot = new TreeMap<>(fields);
+            mapper.writerWithDefaultPrettyPrinter().writeValue(temp, snapshot);
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error("Failed to write locator profile to {}", PATH, e);
+        }
+    }
+
+    /**
+     * Average lookup time per strategy (xpath, accessibilityId, ...), slow ones flagged
+     */
+    public static String getSummary() {
+        Map<String, double[]> strategies = new TreeMap<>();
+        for (Map<String, Stats> locators : fields.values()) {
+            for (Map.Entry<String, Stats> entry : locators.entrySet()) {
+                Stats stats = entry.getValue();
+                if (stats.found == 0) {
+                    continue;
+                }
+                double[] totals = strategies.computeIfAbsent(strategyOf(entry.getKey()), key -> new double[2]);
+                totals[0] += stats.found;
+                totals[1] += stats.avgMillis * stats.found;
+            }
+        }
+        StringBuilder summary = new StringBuilder("Locator Profile - ").append(fields.size()).append(" fields");
+        for (Map.Entry<String, double[]> entry : strategies.entrySet()) {
+            long avg = Math.round(entry.getValue()[1] / entry.getValue()[0]);
+            summary.append(String.format("%n  %s - Lookups: %d, Avg: %d ms%s", entry.getKey(),
+                    (long) entry.getValue()[0], avg, avg > SLOW_MILLIS || "xpath".equals(entry.getKey()) ? " (slow)" : ""));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * "By.xpath: //x" -> "xpath", "AppiumBy.accessibilityId: English" -> "accessibilityId"
+     */
+    private static String strategyOf(String locator) {
+        int colon = locator.indexOf(':');
+        String strategy = colon > 0 ? locator.substring(0, colon) : locator;
+        return strategy.substring(strategy.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Lookup statistics for one locator of one field; public fields for Jackson
+     */
+    public static class Stats {
+        public long lookups;
+        public long found;
+        public double avgMillis;
+        public double maxMillis;
+    }
+}
@@ -1,6 +1,8 @@
 package pages;
 
 import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.HowToUseLocators;
+import io.appium.java_client.pagefactory.LocatorGroupStrategy;
 import io.appium.java_client.pagefactory.iOSXCUITFindBy;
 import org.openqa.selenium.WebElement;
 import org.slf4j.Logger;
@@ -9,6 +11,7 @@ import org.slf4j.LoggerFactory;
 public class LoginPage extends BasePage {
 
     private static final Logger log = LoggerFactory.getLogger(LoginPage.class);
+
     @AndroidFindBy(accessibility = "English")
     private WebElement englishLang;
 
@@ -39,8 +42,11 @@ public class LoginPage extends BasePage {
     @iOSXCUITFindBy(id = "errorMessage")
     private WebElement errorMessage;
 
+    // Equivalent iOS candidates; the predicate usually wins over XPath once measured
     @AndroidFindBy(accessibility = "Football Trivia")
-    @iOSXCUITFindBy(xpath = "//XCUIElementTypeStaticText[@name='Welcome']")
+    @HowToUseLocators(iOSXCUITAutomation = LocatorGroupStrategy.ALL_POSSIBLE)
+    @iOSXCUITFindBy(iOSNsPredicate = "type == 'XCUIElementTypeStaticText' AND name == 'Welcome'")
+    @iOSXCUITFindBy(xpath = "//XCUIElementTypeStaticText[@name='Welcome']", priority = 1)
     private WebElement homeScreen;
 
     @AndroidFindBy(id = "com.example.app:id/forgot_password")
@@ -51,6 +57,21 @@ public class LoginPage extends BasePage {
         super();
     }
 
+    @Override
+    protected boolean bindElements(PageElements elements) {
+        englishLang = LoginPageLocators.englishLang(elements);
+        arabLang = LoginPageLocators.arabLang(elements);
+        continueBtn = LoginPageLocators.continueBtn(elements);
+        usernameField = LoginPageLocators.usernameField(elements);
+        passwordField = LoginPageLocators.passwordField(elements);
+        loginButton = LoginPageLocators.loginButton(elements);
+        continueLoginBtn = LoginPageLocators.continueLoginBtn(elements);
+        errorMessage = LoginPageLocators.errorMessage(elements);
+        homeScreen = LoginPageLocators.homeScreen(elements);
+        forgotPasswordLink = LoginPageLocators.forgotPasswordLink(elements);
+        return true;
+    }
+
     /**
      * Enter username
      */
@@ -70,10 +91,10 @@ public class LoginPage extends BasePage {
 
 
     /**
-     * Check if login is successful (welcome message is displayed)
+     * Check if login is successful (welcome message is displayed), waiting up to the element timeout
      */
     public boolean isLoginSuccessful() {
-        return isElementDisplayed(homeScreen, "Football Trivia");
+        return waitForElementVisible(byPlatform(LoginPageLocators.HOME_SCREEN_ANDROID, LoginPageLocators.HOME_SCREEN_IOS), "Football Trivia");
     }
 
     /**
@@ -84,10 +105,18 @@ public class LoginPage extends BasePage {
     }
 
     /**
-     * Check if error message is displayed
+     * Check if error message is displayed, waiting up to the element timeout;
+     * use {@link #assertErrorMessageAbsentWithin} to check that none appears
      */
     public boolean isErrorMessageDisplayed() {
-        return isElementDisplayed(errorMessage, "Error Message");
+        return waitForElementVisible(byPlatform(LoginPageLocators.ERROR_MESSAGE_ANDROID, LoginPageLocators.ERROR_MESSAGE_IOS), "Error Message");
+    }
+
+    /**
+     * Fail unless no error message is shown within the given time
+     */
+    public void assertErrorMessageAbsentWithin(long withinMillis) {
+        assertElementAbsentWithin(byPlatform(LoginPageLocators.ERROR_MESSAGE_ANDROID, LoginPageLocators.ERROR_MESSAGE_IOS), "Error Message", withinMillis);
     }
 
     /**
@@ -98,17 +127,19 @@ public class LoginPage extends BasePage {
     }
 
     /**
-     * Check if username field is displayed
+     * Check if username field is displayed, waiting up to the element timeout while the screen renders
      */
     public boolean isUsernameFieldDisplayed() {
-        return isElementDisplayed(usernameField, "Username Field");
+        return waitForElementVisible(byPlatform(LoginPageLocators.USERNAME_FIELD_ANDROID, LoginPageLocators.USERNAME_FIELD_IOS),
+                "Username Field");
     }
 
     /**
-     * Check if password field is displayed
+     * Check if password field is displayed, waiting up to the element timeout while the screen renders
      */
     public boolean isPasswordFieldDisplayed() {
-        return isElementDisplayed(passwordField, "Password Field");
+        return waitForElementVisible(byPlatform(LoginPageLocators.PASSWORD_FIELD_ANDROID, LoginPageLocators.PASSWORD_FIELD_IOS),
+                "Password Field");
     }
 
     /**
@@ -116,10 +147,10 @@ public class LoginPage extends BasePage {
      */
     public void selectLanguage(){
         try{
-            waitForElementToBeClickable(englishLang);
+            waitForElementToBeClickable(englishLang, "English Language");
             englishLang.click();
             log.info("Selected english language");
-            waitForElementToBeClickable(continueBtn);
+            waitForElementToBeClickable(continueBtn, "Continue Button");
             continueBtn.click();
         }catch (Exception e){
             log.info("Exception - "+e);
@@ -127,8 +158,9 @@ public class LoginPage extends BasePage {
     }
     public boolean isLoginButtonEnabled() {
         try {
-            waitForElementToBeVisible(loginButton);
-            return loginButton.isEnabled();
+            return waitForElementState(byPlatform(LoginPageLocators.LOGIN_BUTTON_ANDROID, LoginPageLocators.LOGIN_BUTTON_IOS),
+                    "Login Button", ElementState::isDisplayed,
+                    ElementState.Property.DISPLAYED, ElementState.Property.ENABLED).isEnabled();
         } catch (Exception e) {
             return false;
         }
@@ -157,10 +189,10 @@ public class LoginPage extends BasePage {
      * Clear all input fields
      */
     public void clearFields() {
-        if (isElementDisplayed(usernameField, "Username Field")) {
+        if (isElementPresent(byPlatform(LoginPageLocators.USERNAME_FIELD_ANDROID, LoginPageLocators.USERNAME_FIELD_IOS), "Username Field")) {
             usernameField.clear();
         }
-        if (isElementDisplayed(passwordField, "Password Field")) {
+        if (isElementPresent(byPlatform(LoginPageLocators.PASSWORD_FIELD_ANDROID, LoginPageLocators.PASSWORD_FIELD_IOS), "Password Field")) {
             passwordField.clear();
         }
     }
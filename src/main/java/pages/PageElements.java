@@ -0,0 +1,106 @@
+package pages;
+
+import driver.CommandMetrics;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Creates the lazy elements that generated locator tables assign to page
+ * fields. The platform is decided once per page, so each field costs one
+ * plain object and no reflection. Elements behave like the caching
+ * decorator's proxies: looked up on first use, reused through the page's
+ * {@link ElementCache} and looked up again once when stale. Element lists
+ * run a fresh findElements on every access; both are timed into
+ * {@link LocatorProfile} under the field name when profiling.
+ */
+public class PageElements {
+    private final AppiumDriver driver;
+    private final ElementCache cache;
+    private final String page;
+    private final boolean ios;
+
+    /**
+     * @param cache element cache for the page, or null to look elements up on every call
+     */
+    PageElements(AppiumDriver driver, ElementCache cache, String page) {
+        this.driver = driver;
+        this.cache = cache;
+        this.page = page;
+        this.ios = driver instanceof IOSDriver;
+    }
+
+    public WebElement element(String name, By androidLocator, By iosLocator) {
+        return new LocatedElement(driver, page, name, profileKey(name), ios ? iosLocator : androidLocator, cache);
+    }
+
+    public List<WebElement> elements(String name, By androidLocator, By iosLocator) {
+        return new LocatedElementList(driver, page, profileKey(name), ios ? iosLocator : androidLocator);
+    }
+
+    /**
+     * Key for {@link LocatorProfile}, e.g. "LoginPage.homeScreen@ios"
+     */
+    String profileKey(String name) {
+        return page + "." + name + (ios ? "@ios" : "@android");
+    }
+
+    /**
+     * Like the decorator's list proxy: every access runs a fresh findElements
+     */
+    private static class LocatedElementList extends AbstractList<WebElement> {
+        private final AppiumDriver driver;
+        private final String page;
+        private final String profileKey;
+        private final By locator;
+
+        private LocatedElementList(AppiumDriver driver, String page, String profileKey, By locator) {
+            this.driver = driver;
+            this.page = page;
+            this.profileKey = profileKey;
+            this.locator = locator;
+        }
+
+        private List<WebElement> find() {
+            String previousPage = CommandMetrics.enterPage(page);
+            try {
+                // Candidate locators time each of their candidates themselves
+                if (!LocatorProfile.isProfiling() || locator instanceof CandidateBy) {
+                    return driver.findElements(locator);
+                }
+                long start = System.nanoTime();
+                List<WebElement> elements = driver.findElements(locator);
+                LocatorProfile.record(profileKey, locator, System.nanoTime() - start, !elements.isEmpty());
+                return elements;
+            } finally {
+                CommandMetrics.restorePage(previousPage);
+            }
+        }
+
+        @Override
+        public WebElement get(int index) {
+            return find().get(index);
+        }
+
+        @Override
+        public int size() {
+            return find().size();
+        }
+
+        @Override
+        public Iterator<WebElement> iterator() {
+            // One lookup per iteration rather than one per element
+            return find().iterator();
+        }
+
+        @Override
+        public String toString() {
+            return "Located element list for: " + locator;
+        }
+    }
+}
@@ -0,0 +1,539 @@
+package pages;
+
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+import utils.ConfigManager;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The current screen's UI hierarchy, fetched with one getPageSource call and
+ * indexed in memory so read-only checks (presence, visibility, text,
+ * attributes) cost no further round-trips. One snapshot per thread; any
+ * mutating action discards it via {@link #invalidate()}, and it also expires
+ * after snapshot.max.age.ms so background UI changes are picked up.
+ * <p>
+ * Ids, accessibility ids, class names and XPath are answered locally, as are
+ * simple UiSelector chains and NSPredicate equality conditions. Anything
+ * else falls back to a live lookup.
+ */
+public class PageSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(PageSnapshot.class);
+
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("snapshot.enabled", true);
+    private static final long MAX_AGE_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(ConfigManager.getIntProperty("snapshot.max.age.ms", 2000));
+
+    private static final Pattern UI_SELECTOR_CALL = Pattern.compile("\\.(\\w+)\\((\"((?:[^\"\\\\]|\\\\.)*)\"|\\d+)\\)");
+    private static final Pattern ANDROID_BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+    private static final Pattern PREDICATE_CONDITION = Pattern.compile("(\\w+)\\s*==?\\s*(['\"])(.*)\\2");
+
+    private static final Set<String> IOS_SCROLLABLE_TYPES = new HashSet<>(Arrays.asList(
+            "XCUIElementTypeTable", "XCUIElementTypeCollectionView", "XCUIElementTypeScrollView"));
+
+    private static final ThreadLocal<PageSnapshot> current = new ThreadLocal<>();
+    private static final AtomicLong fetches = new AtomicLong();
+    private static final AtomicLong localQueries = new AtomicLong();
+    private static final AtomicLong liveQueries = new AtomicLong();
+
+    private final WebDriver driver;
+    private final boolean ios;
+    private final long takenAt = System.nanoTime();
+    // Null when disabled or the source could not be parsed; every query then goes live
+    private final Document document;
+    private final List<Element> elements = new ArrayList<>();
+    private final Map<String, List<Element>> byTag = new HashMap<>();
+    private final Map<String, List<Element>> byId = new HashMap<>();
+    private final Map<String, List<Element>> byAccessibilityId = new HashMap<>();
+    private XPath xpath;
+    private Element scrollable;
+    private boolean scrollableResolved;
+
+    private PageSnapshot(WebDriver driver, Document document) {
+        this.driver = driver;
+        this.ios = driver instanceof IOSDriver;
+        this.document = document;
+        if (document != null) {
+            index();
+        }
+    }
+
+    /**
+     * This thread's snapshot of the current screen, fetched only if there is no fresh one
+     */
+    static PageSnapshot of(WebDriver driver) {
+        PageSnapshot snapshot = current.get();
+        if (snapshot == null || snapshot.driver != driver || System.nanoTime() - snapshot.takenAt > MAX_AGE_NANOS) {
+            snapshot = new PageSnapshot(driver, ENABLED ? fetch(driver) : null);
+            current.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Discard this thread's snapshot; called before anything that can change the screen
+     */
+    public static void invalidate() {
+        current.remove();
+    }
+
+    private static Document fetch(WebDriver driver) {
+        long start = System.nanoTime();
+        String source = driver.getPageSource();
+        fetches.incrementAndGet();
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+            Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(source)));
+            logger.debug("Page snapshot of {} chars in {} ms", source.length(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return document;
+        } catch (Exception e) {
+            logger.debug("Page source could not be parsed, snapshot queries go live: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void index() {
+        NodeList nodes = document.getElementsByTagName("*");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            elements.add(element);
+            byTag.computeIfAbsent(element.getTagName(), key -> new ArrayList<>()).add(element);
+            if (ios) {
+                String name = element.getAttribute("name");
+                if (!name.isEmpty()) {
+                    byAccessibilityId.computeIfAbsent(name, key -> new ArrayList<>()).add(element);
+                }
+            } else {
+                String resourceId = element.getAttribute("resource-id");
+                if (!resourceId.isEmpty()) {
+                    byId.computeIfAbsent(resourceId, key -> new ArrayList<>()).add(element);
+                    // Appium also matches an id given without the package prefix
+                    int idStart = resourceId.indexOf(":id/");
+                    if (idStart >= 0) {
+                        byId.computeIfAbsent(resourceId.substring(idStart + 4), key -> new ArrayList<>()).add(element);
+                    }
+                }
+                String description = element.getAttribute("content-desc");
+                if (!description.isEmpty()) {
+                    byAccessibilityId.computeIfAbsent(description, key -> new ArrayList<>()).add(element);
+                }
+            }
+        }
+    }
+
+    public boolean isPresent(By locator) {
+        return count(locator) > 0;
+    }
+
+    public int count(By locator) {
+        List<Element> matches = find(locator);
+        return matches != null ? matches.size() : live(locator).size();
+    }
+
+    /**
+     * True if the first match is displayed
+     */
+    public boolean isDisplayed(By locator) {
+        List<Element> matches = find(locator);
+        if (matches != null) {
+            return !matches.isEmpty() && "true".equals(matches.get(0).getAttribute(ios ? "visible" : "displayed"));
+        }
+        List<WebElement> elements = live(locator);
+        return !elements.isEmpty() && elements.get(0).isDisplayed();
+    }
+
+    /**
+     * Text of the first match (value, else label, on iOS), or null if nothing matches
+     */
+    public String getText(By locator) {
+        List<Element> matches = find(locator);
+        if (matches != null) {
+            if (matches.isEmpty()) {
+                return null;
+            }
+            Element element = matches.get(0);
+            if (!ios) {
+                return element.getAttribute("text");
+            }
+            String value = element.getAttribute("value");
+            return !value.isEmpty() ? value : element.getAttribute("label");
+        }
+        List<WebElement> elements = live(locator);
+        return elements.isEmpty() ? null : elements.get(0).getText();
+    }
+
+    /**
+     * Attribute of the first match as it appears in the page source, or null
+     */
+    public String getAttribute(By locator, String attribute) {
+        List<Element> matches = find(locator);
+        if (matches != null) {
+            return matches.isEmpty() || !matches.get(0).hasAttribute(attribute) ? null : matches.get(0).getAttribute(attribute);
+        }
+        List<WebElement> elements = live(locator);
+        return elements.isEmpty() ? null : elements.get(0).getAttribute(attribute);
+    }
+
+    /**
+     * Requested properties of the first match, or null if the snapshot cannot answer them
+     */
+    ElementState getState(By locator, Set<ElementState.Property> properties) {
+        List<Element> matches = find(locator);
+        if (matches == null) {
+            return null;
+        }
+        if (matches.isEmpty()) {
+            return ElementState.absent();
+        }
+        Element element = matches.get(0);
+        Map<ElementState.Property, Object> values = new EnumMap<>(ElementState.Property.class);
+        for (ElementState.Property property : properties) {
+            Object value = stateValue(element, property);
+            if (value == null) {
+                return null;
+            }
+            values.put(property, value);
+        }
+        ElementState.countSnapshotRead();
+        return new ElementState(true, values);
+    }
+
+    private Object stateValue(Element element, ElementState.Property property) {
+        switch (property) {
+            case DISPLAYED:
+                return flag(element, ios ? "visible" : "displayed");
+            case ENABLED:
+                return flag(element, "enabled");
+            case SELECTED:
+                return flag(element, "selected");
+            case TEXT:
+                if (!ios) {
+                    return element.getAttribute("text");
+                }
+                String value = element.getAttribute("value");
+                return !value.isEmpty() ? value : element.getAttribute("label");
+            case RECT:
+                return rect(element);
+            default:
+                return null;
+        }
+    }
+
+    private static Boolean flag(Element element, String attribute) {
+        return element.hasAttribute(attribute) ? Boolean.valueOf(element.getAttribute(attribute)) : null;
+    }
+
+    /**
+     * bounds="[x1,y1][x2,y2]"
+     */
+    private static Rectangle androidRect(String bounds) {
+        Matcher matcher = ANDROID_BOUNDS.matcher(bounds);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int x1 = Integer.parseInt(matcher.group(1));
+        int y1 = Integer.parseInt(matcher.group(2));
+        int x2 = Integer.parseInt(matcher.group(3));
+        int y2 = Integer.parseInt(matcher.group(4));
+        return new Rectangle(x1, y1, y2 - y1, x2 - x1);
+    }
+
+    private static Rectangle iosRect(Element element) {
+        try {
+            return new Rectangle(Integer.parseInt(element.getAttribute("x")), Integer.parseInt(element.getAttribute("y")),
+                    Integer.parseInt(element.getAttribute("height")), Integer.parseInt(element.getAttribute("width")));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Bounds of the largest scrollable container on screen, or null if there is none or no parsed source
+     */
+    Rectangle scrollableRect() {
+        Element container = scrollable();
+        return container != null ? rect(container) : null;
+    }
+
+    /**
+     * Median height of the scrollable container's rows, or -1 if unknown
+     */
+    int itemHeight() {
+        Element container = scrollable();
+        if (container == null) {
+            return -1;
+        }
+        List<Integer> heights = new ArrayList<>();
+        for (Node child = container.getFirstChild(); child != null; child = child.getNextSibling()) {
+            Rectangle rect = child instanceof Element ? rect((Element) child) : null;
+            if (rect != null && rect.height > 0) {
+                heights.add(rect.height);
+            }
+        }
+        if (heights.isEmpty()) {
+            return -1;
+        }
+        Collections.sort(heights);
+        return heights.get(heights.size() / 2);
+    }
+
+    /**
+     * Identity (type and label) of every displayed, labelled element in the scrollable container,
+     * in document order; null if the source was not parsed. Two snapshots with the same list show
+     * the same content.
+     */
+    List<String> visibleItems() {
+        if (document == null) {
+            return null;
+        }
+        Element container = scrollable();
+        NodeList nodes = container != null ? container.getElementsByTagName("*") : document.getElementsByTagName("*");
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            if (!"true".equals(element.getAttribute(ios ? "visible" : "displayed"))) {
+                continue;
+            }
+            String label = ios ? element.getAttribute("name") + element.getAttribute("label")
+                    : element.getAttribute("text") + element.getAttribute("content-desc");
+            if (!label.isEmpty()) {
+                items.add(element.getTagName() + "|" + label);
+            }
+        }
+        return items;
+    }
+
+    private Element scrollable() {
+        if (scrollableResolved) {
+            return scrollable;
+        }
+        scrollableResolved = true;
+        long largestArea = 0;
+        for (Element element : elements) {
+            boolean candidate = ios ? IOS_SCROLLABLE_TYPES.contains(element.getTagName())
+                    && "true".equals(element.getAttribute("visible"))
+                    : "true".equals(element.getAttribute("scrollable"));
+            Rectangle rect = candidate ? rect(element) : null;
+            if (rect != null && (long) rect.width * rect.height > largestArea) {
+                largestArea = (long) rect.width * rect.height;
+                scrollable = element;
+            }
+        }
+        return scrollable;
+    }
+
+    private Rectangle rect(Element element) {
+        return ios ? iosRect(element) : androidRect(element.getAttribute("bounds"));
+    }
+
+    private List<WebElement> live(By locator) {
+        liveQueries.incrementAndGet();
+        try {
+            return driver.findElements(locator);
+        } catch (WebDriverException e) {
+            logger.debug("Live lookup failed for {}: {}", locator, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Matches in document order, or null if this locator cannot be answered from the snapshot
+     */
+    private List<Element> find(By locator) {
+        if (document == null || locator == null) {
+            return null;
+        }
+        List<Element> matches = match(locator);
+        if (matches != null) {
+            localQueries.incrementAndGet();
+        }
+        return matches;
+    }
+
+    private List<Element> match(By locator) {
+        if (locator instanceof CandidateBy) {
+            List<Element> matches = null;
+            for (By candidate : ((CandidateBy) locator).getCandidates()) {
+                matches = match(candidate);
+                if (matches != null && !matches.isEmpty()) {
+                    break;
+                }
+            }
+            return matches;
+        }
+        // Locators describe themselves as "By.xpath: //x", "AppiumBy.accessibilityId: Login", ...
+        String description = locator.toString();
+        int colon = description.indexOf(": ");
+        if (colon < 0) {
+            return null;
+        }
+        String strategy = description.substring(description.lastIndexOf('.', colon) + 1, colon);
+        return find(strategy, description.substring(colon + 2));
+    }
+
+    private List<Element> find(String strategy, String value) {
+        switch (strategy) {
+            case "id":
+                return indexed(ios ? byAccessibilityId : byId, value);
+            case "accessibilityId":
+                return indexed(byAccessibilityId, value);
+            case "className":
+            case "tagName":
+                return indexed(byTag, value);
+            case "name":
+                return ios ? indexed(byAccessibilityId, value) : null;
+            case "xpath":
+                return xpath(value);
+            case "androidUIAutomator":
+                return ios ? null : uiSelector(value);
+            case "iOSNsPredicateString":
+                return ios ? predicate(value) : null;
+            default:
+                return null;
+        }
+    }
+
+    private static List<Element> indexed(Map<String, List<Element>> index, String key) {
+        List<Element> matches = index.get(key);
+        return matches != null ? matches : Collections.emptyList();
+    }
+
+    private List<Element> xpath(String expression) {
+        try {
+            if (xpath == null) {
+                xpath = XPathFactory.newInstance().newXPath();
+            }
+            NodeList nodes = (NodeList) xpath.evaluate(expression, document, XPathConstants.NODESET);
+            List<Element> matches = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i) instanceof Element) {
+                    matches.add((Element) nodes.item(i));
+                }
+            }
+            return matches;
+        } catch (XPathExpressionException e) {
+            // XPath 1.0 only; leave anything else to the server
+            return null;
+        }
+    }
+
+    /**
+     * new UiSelector() chains of className, resourceId, description, text and instance
+     */
+    private List<Element> uiSelector(String selector) {
+        String trimmed = selector.trim();
+        if (!trimmed.startsWith("new UiSelector()")) {
+            return null;
+        }
+        String calls = trimmed.substring("new UiSelector()".length());
+        Map<String, String> conditions = new HashMap<>();
+        int instance = -1;
+        Matcher matcher = UI_SELECTOR_CALL.matcher(calls);
+        int end = 0;
+        while (matcher.find()) {
+            if (matcher.start() != end) {
+                return null;
+            }
+            end = matcher.end();
+            String method = matcher.group(1);
+            String argument = matcher.group(3) != null ? matcher.group(3).replaceAll("\\\\(.)", "$1") : matcher.group(2);
+            switch (method) {
+                case "className":
+                    conditions.put("class", argument);
+                    break;
+                case "resourceId":
+                    conditions.put("resource-id", argument);
+                    break;
+                case "description":
+                    conditions.put("content-desc", argument);
+                    break;
+                case "text":
+                    conditions.put("text", argument);
+                    break;
+                case "instance":
+                    instance = Integer.parseInt(argument);
+                    break;
+                default:
+                    return null;
+            }
+        }
+        if (end != calls.length()) {
+            return null;
+        }
+        List<Element> matches = filter(conditions);
+        if (instance >= 0) {
+            return instance < matches.size() ? Collections.singletonList(matches.get(instance)) : Collections.emptyList();
+        }
+        return matches;
+    }
+
+    /**
+     * Predicates made only of attribute == 'value' conditions joined by AND
+     */
+    private List<Element> predicate(String predicate) {
+        Map<String, String> conditions = new HashMap<>();
+        for (String condition : predicate.split("(?i)\\s+AND\\s+")) {
+            Matcher matcher = PREDICATE_CONDITION.matcher(condition.trim());
+            if (!matcher.matches()) {
+                return null;
+            }
+            conditions.put(matcher.group(1), matcher.group(3));
+        }
+        return filter(conditions);
+    }
+
+    private List<Element> filter(Map<String, String> conditions) {
+        List<Element> matches = new ArrayList<>();
+        for (Element element : elements) {
+            boolean match = true;
+            for (Map.Entry<String, String> condition : conditions.entrySet()) {
+                if (!condition.getValue().equals(element.getAttribute(condition.getKey()))) {
+                    match = false;
+                    break;
+                }
+            }
+            if (match) {
+                matches.add(element);
+            }
+        }
+        return matches;
+    }
+
+    public static String getSummary() {
+        return String.format("Page Snapshots - Fetched: %d, Local queries: %d, Live fallbacks: %d",
+                fetches.get(), localQueries.get(), liveQueries.get());
+    }
+}
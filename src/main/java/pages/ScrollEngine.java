@@ -0,0 +1,245 @@
+package pages;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Native scrolling for long lists. Swipes the largest scrollable container
+ * with {@code mobile: scrollGesture} (UiAutomator2) or a W3C touch drag
+ * (XCUITest, or when the gesture command is unavailable) and checks the
+ * target against a page snapshot after each swipe, so no findElement calls
+ * are spent on rows that are not there yet. The end of the list is detected
+ * when a swipe leaves the visible content unchanged.
+ * <p>
+ * The swipe distance starts at one screen minus one row, from the row
+ * height in the snapshot, and adapts: shorter when a swipe leaves no row in
+ * common with the previous screen (rows may have been skipped), longer when
+ * most rows are still on screen.
+ */
+public class ScrollEngine {
+    private static final Logger logger = LoggerFactory.getLogger(ScrollEngine.class);
+
+    public enum Direction {
+        DOWN, UP
+    }
+
+    private static final int MAX_SWIPES = ConfigManager.getIntProperty("scroll.max.swipes", 50);
+    private static final long SWIPE_MILLIS = ConfigManager.getIntProperty("scroll.swipe.duration.ms", 600);
+    private static final long SETTLE_MILLIS = ConfigManager.getIntProperty("scroll.settle.ms", 150);
+    // auto: scrollGesture on Android, touch actions on iOS; actions: touch actions everywhere
+    private static final String STRATEGY = ConfigManager.getProperty("scroll.strategy", "auto");
+
+    private static final double MIN_FRACTION = 0.2;
+    private static final double MAX_FRACTION = 0.8;
+    private static final double DEFAULT_FRACTION = 0.6;
+
+    private static final AtomicLong scrolls = new AtomicLong();
+    private static final AtomicLong totalSwipes = new AtomicLong();
+    private static final AtomicLong totalMillis = new AtomicLong();
+    private static final AtomicLong notFound = new AtomicLong();
+
+    private final AppiumDriver driver;
+    private final boolean ios;
+    private boolean gestureUnsupported;
+
+    public ScrollEngine(AppiumDriver driver) {
+        this.driver = driver;
+        this.ios = driver instanceof IOSDriver;
+        this.gestureUnsupported = ios || "actions".equalsIgnoreCase(STRATEGY);
+    }
+
+    /**
+     * Swipe until the condition holds on a fresh snapshot, the list ends or the swipe limit is hit
+     */
+    public Result scrollUntil(Predicate<PageSnapshot> visible, Direction direction) {
+        long start = System.nanoTime();
+        PageSnapshot.invalidate();
+        PageSnapshot snapshot = PageSnapshot.of(driver);
+        if (visible.test(snapshot)) {
+            return finish(new Result(true, 0, start, false));
+        }
+
+        Rectangle area = snapshot.scrollableRect();
+        if (area == null) {
+            Dimension window = driver.manage().window().getSize();
+            area = new Rectangle(0, 0, window.getHeight(), window.getWidth());
+        }
+        double fraction = initialFraction(area, snapshot.itemHeight());
+        List<String> previous = snapshot.visibleItems();
+
+        for (int swipes = 1; swipes <= MAX_SWIPES; swipes++) {
+            boolean canScrollMore = swipe(area, direction, fraction);
+            PageSnapshot.invalidate();
+            pause(SETTLE_MILLIS);
+            snapshot = PageSnapshot.of(driver);
+            if (visible.test(snapshot)) {
+                return finish(new Result(true, swipes, start, false));
+            }
+            List<String> items = snapshot.visibleItems();
+            if (!canScrollMore || (items != null && items.equals(previous))) {
+                return finish(new Result(false, swipes, start, true));
+            }
+            fraction = adapt(fraction, previous, items);
+            previous = items;
+        }
+        return finish(new Result(false, MAX_SWIPES, start, false));
+    }
+
+    private static double initialFraction(Rectangle area, int itemHeight) {
+        if (itemHeight <= 0 || itemHeight >= area.height) {
+            return DEFAULT_FRACTION;
+        }
+        // One screen minus one row keeps a row of overlap, so nothing is skipped
+        return clamp((double) (area.height - itemHeight) / area.height);
+    }
+
+    private static double adapt(double fraction, List<String> previous, List<String> items) {
+        if (previous == null || items == null || previous.isEmpty()) {
+            return fraction;
+        }
+        Set<String> now = new HashSet<>(items);
+        int kept = 0;
+        for (String item : previous) {
+            if (now.contains(item)) {
+                kept++;
+            }
+        }
+        if (kept == 0) {
+            return clamp(fraction * 0.75);
+        }
+        if (kept * 2 > previous.size()) {
+            return clamp(fraction * 1.25);
+        }
+        return fraction;
+    }
+
+    private static double clamp(double fraction) {
+        return Math.max(MIN_FRACTION, Math.min(MAX_FRACTION, fraction));
+    }
+
+    /**
+     * One swipe over the area; returns false if the driver reports nothing more to scroll
+     */
+    private boolean swipe(Rectangle area, Direction direction, double fraction) {
+        if (!gestureUnsupported) {
+            try {
+                Map<String, Object> args = new HashMap<>();
+                args.put("left", area.x);
+                args.put("top", area.y);
+                args.put("width", area.width);
+                args.put("height", area.height);
+                args.put("direction", direction == Direction.DOWN ? "down" : "up");
+                args.put("percent", fraction);
+                Object canScrollMore = driver.executeScript("mobile: scrollGesture", args);
+                return !Boolean.FALSE.equals(canScrollMore);
+            } catch (WebDriverException e) {
+                logger.debug("mobile: scrollGesture unavailable, using touch actions: {}", e.getMessage());
+                gestureUnsupported = true;
+            }
+        }
+
+        int x = area.x + area.width / 2;
+        int middle = area.y + area.height / 2;
+        int half = (int) (area.height * fraction / 2);
+        // Content moves with the finger: drag up to reveal what is below
+        int startY = direction == Direction.DOWN ? middle + half : middle - half;
+        int endY = direction == Direction.DOWN ? middle - half : middle + half;
+
+        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+        Sequence drag = new Sequence(finger, 0);
+        drag.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, startY));
+        drag.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+        drag.addAction(new Pause(finger, Duration.ofMillis(100)));
+        drag.addAction(finger.createPointerMove(Duration.ofMillis(SWIPE_MILLIS), PointerInput.Origin.viewport(), x, endY));
+        drag.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+        driver.perform(Collections.singletonList(drag));
+        return true;
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Result finish(Result result) {
+        scrolls.incrementAndGet();
+        totalSwipes.addAndGet(result.swipes);
+        totalMillis.addAndGet(result.millis);
+        if (!result.found) {
+            notFound.incrementAndGet();
+        }
+        return result;
+    }
+
+    public static String getSummary() {
+        long count = scrolls.get();
+        return String.format("Scrolling - Scrolls: %d, Swipes: %d, Avg swipes: %.1f, Avg time: %d ms, Not found: %d",
+                count, totalSwipes.get(), count > 0 ? (double) totalSwipes.get() / count : 0.0,
+                count > 0 ? totalMillis.get() / count : 0, notFound.get());
+    }
+
+    /**
+     * Outcome of one scroll: whether the target was found, swipes used and time taken
+     */
+    public static class Result {
+        private final boolean found;
+        private final int swipes;
+        private final long millis;
+        private final boolean endReached;
+
+        private Result(boolean found, int swipes, long startNanos, boolean endReached) {
+            this.found = found;
+            this.swipes = swipes;
+            this.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            this.endReached = endReached;
+        }
+
+        public boolean isFound() {
+            return found;
+        }
+
+        public int getSwipes() {
+            return swipes;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isEndReached() {
+            return endReached;
+        }
+
+        @Override
+        public String toString() {
+            return (found ? "found" : endReached ? "end of list reached" : "swipe limit reached")
+                    + " after " + swipes + " swipes in " + millis + " ms";
+        }
+    }
+}
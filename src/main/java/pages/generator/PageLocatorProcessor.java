@@ -0,0 +1,384 @@
+package pages.generator;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a locator table and element factories for every page class with
+ * {@code @AndroidFindBy} / {@code @iOSXCUITFindBy} fields. For a page Foo it
+ * writes FooLocators in the same package: one By constant per field and
+ * platform, and one static method per field that creates its element from
+ * {@link pages.PageElements}. The page assigns its own (private) fields from
+ * these methods, so it is wired without PageFactory reflection. Locator
+ * strategies map as in the Appium decorator, and a field without an
+ * annotation for a platform falls back to By.id(field name), as the
+ * decorator does for native content.
+ * Several annotations for one platform under
+ * {@code @HowToUseLocators(... = ALL_POSSIBLE)} become a {@link pages.CandidateBy},
+ * whose candidates are ranked by measured lookup time at run time.
+ * A page with a field that cannot be generated (chained or combined
+ * locators, other field types, unknown strategies) gets a warning and no
+ * locator table, and stays on the reflective PageFactory binding.
+ * <p>
+ * Annotations are read as mirrors, so this class needs nothing but the JDK.
+ * It is compiled before the rest of the sources (see the compiler plugin in
+ * the pom).
+ */
+@SupportedAnnotationTypes({PageLocatorProcessor.ANDROID_FIND_BY, PageLocatorProcessor.IOS_FIND_BY,
+        PageLocatorProcessor.ANDROID_FIND_BY_SET, PageLocatorProcessor.IOS_FIND_BY_SET})
+public class PageLocatorProcessor extends AbstractProcessor {
+    static final String ANDROID_FIND_BY = "io.appium.java_client.pagefactory.AndroidFindBy";
+    static final String IOS_FIND_BY = "io.appium.java_client.pagefactory.iOSXCUITFindBy";
+    // Containers javac substitutes when a find-by annotation is repeated
+    static final String ANDROID_FIND_BY_SET = "io.appium.java_client.pagefactory.AndroidFindBySet";
+    static final String IOS_FIND_BY_SET = "io.appium.java_client.pagefactory.iOSXCUITFindBySet";
+    private static final String PAGE_FACTORY = "io.appium.java_client.pagefactory.";
+    private static final String HOW_TO_USE_LOCATORS = "io.appium.java_client.pagefactory.HowToUseLocators";
+    private static final String WEB_ELEMENT = "org.openqa.selenium.WebElement";
+
+    // Annotation attribute -> AppiumBy factory method
+    private static final Map<String, String> ANDROID_STRATEGIES = new HashMap<>();
+    private static final Map<String, String> IOS_STRATEGIES = new HashMap<>();
+
+    static {
+        for (Map<String, String> strategies : List.of(ANDROID_STRATEGIES, IOS_STRATEGIES)) {
+            strategies.put("id", "id");
+            strategies.put("accessibility", "accessibilityId");
+            strategies.put("xpath", "xpath");
+            strategies.put("className", "className");
+            strategies.put("tagName", "tagName");
+        }
+        ANDROID_STRATEGIES.put("uiAutomator", "androidUIAutomator");
+        ANDROID_STRATEGIES.put("androidDataMatcher", "androidDataMatcher");
+        ANDROID_STRATEGIES.put("androidViewMatcher", "androidViewMatcher");
+        IOS_STRATEGIES.put("iOSNsPredicate", "iOSNsPredicateString");
+        IOS_STRATEGIES.put("iOSClassChain", "iOSClassChain");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, Set<VariableElement>> fieldsByPage = new LinkedHashMap<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.FIELD) {
+                    fieldsByPage.computeIfAbsent((TypeElement) element.getEnclosingElement(), page -> new LinkedHashSet<>());
+                }
+            }
+        }
+        // Every locator field of the page, including ones with only @AndroidFindBys and the like
+        for (Map.Entry<TypeElement, Set<VariableElement>> page : fieldsByPage.entrySet()) {
+            for (VariableElement field : ElementFilter.fieldsIn(page.getKey().getEnclosedElements())) {
+                if (hasPageFactoryAnnotation(field)) {
+                    page.getValue().add(field);
+                }
+            }
+        }
+        for (Map.Entry<TypeElement, Set<VariableElement>> page : fieldsByPage.entrySet()) {
+            generate(page.getKey(), page.getValue());
+        }
+        // Leave the annotations visible to other processors
+        return false;
+    }
+
+    private void generate(TypeElement page, Set<VariableElement> fields) {
+        Messager messager = processingEnv.getMessager();
+        List<FieldBinding> bindings = new ArrayList<>();
+        boolean valid = true;
+        for (VariableElement field : fields) {
+            FieldBinding binding = bind(field);
+            if (binding == null) {
+                valid = false;
+            } else {
+                bindings.add(binding);
+            }
+        }
+        if (!valid) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "No locators generated for " + typeName(page)
+                    + "; it is bound by PageFactory", page);
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(page).getQualifiedName().toString();
+        String pageName = typeName(page);
+        String className = pageName.replace('.', '_') + "Locators";
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+        try (Writer out = processingEnv.getFiler().createSourceFile(qualifiedName, page).openWriter()) {
+            if (!packageName.isEmpty()) {
+                out.write("package " + packageName + ";\n\n");
+            }
+            out.write("import io.appium.java_client.AppiumBy;\n");
+            out.write("import org.openqa.selenium.By;\n");
+            out.write("import org.openqa.selenium.WebElement;\n");
+            if (!"pages".equals(packageName)) {
+                out.write("import pages.CandidateBy;\n");
+                out.write("import pages.PageElements;\n");
+            }
+            out.write("\nimport java.util.List;\n\n");
+            out.write("/**\n * Locators and element factories for " + pageName
+                    + ", generated from its annotated fields. Do not edit.\n */\n");
+            out.write("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")\n");
+            out.write("final class " + className + " {\n");
+            for (FieldBinding binding : bindings) {
+                out.write("    static final By " + binding.constant + "_ANDROID = " + binding.androidBy + ";\n");
+                out.write("    static final By " + binding.constant + "_IOS = " + binding.iosBy + ";\n");
+            }
+            out.write("\n    private " + className + "() {\n    }\n");
+            for (FieldBinding binding : bindings) {
+                out.write("\n    static " + (binding.list ? "List<WebElement> " : "WebElement ") + binding.name
+                        + "(PageElements elements) {\n");
+                out.write("        return elements." + (binding.list ? "elements" : "element") + "(\"" + binding.name
+                        + "\", " + binding.constant + "_ANDROID, " + binding.constant + "_IOS);\n");
+                out.write("    }\n");
+            }
+            out.write("}\n");
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Could not write " + qualifiedName + ": " + e.getMessage(), page);
+        }
+    }
+
+    private FieldBinding bind(VariableElement field) {
+        Messager messager = processingEnv.getMessager();
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+            messager.printMessage(Diagnostic.Kind.WARNING,
+                    "Locator fields must be non-static and non-final so the page can assign them", field);
+            return null;
+        }
+
+        Boolean list = elementType(field.asType());
+        if (list == null) {
+            messager.printMessage(Diagnostic.Kind.WARNING, "Locator fields must be WebElement or List<WebElement>", field);
+            return null;
+        }
+
+        String name = field.getSimpleName().toString();
+        // DefaultElementByBuilder's native-content locator for a field without an annotation for the platform
+        String fallback = "By.id(" + literal(name) + ")";
+        String profileKey = typeName((TypeElement) field.getEnclosingElement()) + "." + name;
+        String androidBy = fallback;
+        String iosBy = fallback;
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            String type = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (ANDROID_FIND_BY.equals(type)) {
+                androidBy = locator(field, mirror, ANDROID_STRATEGIES);
+            } else if (IOS_FIND_BY.equals(type)) {
+                iosBy = locator(field, mirror, IOS_STRATEGIES);
+            } else if (ANDROID_FIND_BY_SET.equals(type)) {
+                androidBy = candidates(field, mirror, ANDROID_STRATEGIES, "androidAutomation", profileKey + "@android");
+            } else if (IOS_FIND_BY_SET.equals(type)) {
+                iosBy = candidates(field, mirror, IOS_STRATEGIES, "iOSXCUITAutomation", profileKey + "@ios");
+            } else if (HOW_TO_USE_LOCATORS.equals(type)) {
+                continue;
+            } else if (type.startsWith(PAGE_FACTORY)) {
+                // Chained or combined locators need the reflective decorator
+                messager.printMessage(Diagnostic.Kind.WARNING, "@" + mirror.getAnnotationType().asElement().getSimpleName()
+                        + " is not supported by the generated locators; use a single @AndroidFindBy/@iOSXCUITFindBy", field);
+                return null;
+            }
+            if (androidBy == null || iosBy == null) {
+                return null;
+            }
+        }
+        return new FieldBinding(name, constantName(name), androidBy, iosBy, list);
+    }
+
+    private static boolean hasPageFactoryAnnotation(VariableElement field) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString().startsWith(PAGE_FACTORY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * CandidateBy expression for a repeated find-by annotation, which must be declared ALL_POSSIBLE
+     */
+    private String candidates(VariableElement field, AnnotationMirror set, Map<String, String> strategies,
+                              String groupAttribute, String profileKey) {
+        if (!"ALL_POSSIBLE".equals(groupStrategy(field, groupAttribute))) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Several locators for one platform are "
+                    + "generated as candidates only; add @HowToUseLocators(" + groupAttribute + " = ALL_POSSIBLE)", field, set);
+            return null;
+        }
+        List<AnnotationMirror> members = new ArrayList<>();
+        for (AnnotationValue entry : annotationValues(set, "value")) {
+            members.add((AnnotationMirror) entry.getValue());
+        }
+        // Declared priority first, as the decorator orders them; stable for equal priorities
+        members.sort((a, b) -> Integer.compare(priority(a), priority(b)));
+
+        StringBuilder expression = new StringBuilder("new CandidateBy(").append(literal(profileKey));
+        for (AnnotationMirror member : members) {
+            String candidate = locator(field, member, strategies);
+            if (candidate == null) {
+                return null;
+            }
+            expression.append(", ").append(candidate);
+        }
+        return expression.append(")").toString();
+    }
+
+    /**
+     * LocatorGroupStrategy name from @HowToUseLocators, CHAIN when not declared
+     */
+    private static String groupStrategy(VariableElement field, String attribute) {
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            if (HOW_TO_USE_LOCATORS.equals(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                    if (attribute.contentEquals(entry.getKey().getSimpleName())) {
+                        return ((VariableElement) entry.getValue().getValue()).getSimpleName().toString();
+                    }
+                }
+            }
+        }
+        return "CHAIN";
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<? extends AnnotationValue> annotationValues(AnnotationMirror mirror, String attribute) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (attribute.contentEquals(entry.getKey().getSimpleName())) {
+                return (List<? extends AnnotationValue>) entry.getValue().getValue();
+            }
+        }
+        return new ArrayList<>();
+    }
+
+    private static int priority(AnnotationMirror mirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if ("priority".contentEquals(entry.getKey().getSimpleName())) {
+                return (Integer) entry.getValue().getValue();
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * AppiumBy expression for the one non-empty strategy of a find-by annotation, or null after reporting why it cannot be generated
+     */
+    private String locator(VariableElement field, AnnotationMirror mirror, Map<String, String> strategies) {
+        String expression = null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            String attribute = entry.getKey().getSimpleName().toString();
+            Object value = entry.getValue().getValue();
+            if ("priority".equals(attribute) || !(value instanceof String) || ((String) value).isEmpty()) {
+                continue;
+            }
+            String method = strategies.get(attribute);
+            if (method == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Locator strategy '" + attribute + "' is not supported by the generated locators", field, mirror);
+                return null;
+            }
+            if (expression != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Only one locator strategy per annotation is allowed", field, mirror);
+                return null;
+            }
+            String owner = "tagName".equals(method) ? "By" : "AppiumBy";
+            expression = owner + "." + method + "(" + literal((String) value) + ")";
+        }
+        if (expression == null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "No locator strategy given", field, mirror);
+        }
+        return expression;
+    }
+
+    /**
+     * False for WebElement, true for List&lt;WebElement&gt;, null for anything else
+     */
+    private Boolean elementType(TypeMirror type) {
+        TypeMirror webElement = processingEnv.getElementUtils().getTypeElement(WEB_ELEMENT).asType();
+        if (processingEnv.getTypeUtils().isSameType(type, webElement)) {
+            return false;
+        }
+        if (type instanceof DeclaredType) {
+            DeclaredType declared = (DeclaredType) type;
+            String raw = ((TypeElement) declared.asElement()).getQualifiedName().toString();
+            if ("java.util.List".equals(raw) && declared.getTypeArguments().size() == 1
+                    && processingEnv.getTypeUtils().isSameType(declared.getTypeArguments().get(0), webElement)) {
+                return true;
+            }
+        }
+        return null;
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    /**
+     * Simple name including enclosing classes, e.g. Outer.Inner
+     */
+    private static String typeName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element enclosing = type.getEnclosingElement(); !(enclosing instanceof PackageElement);
+             enclosing = enclosing.getEnclosingElement()) {
+            name.insert(0, enclosing.getSimpleName() + ".");
+        }
+        return name.toString();
+    }
+
+    /**
+     * usernameField -> USERNAME_FIELD
+     */
+    static String constantName(String fieldName) {
+        StringBuilder constant = new StringBuilder();
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(fieldName.charAt(i - 1))) {
+                constant.append('_');
+            }
+            constant.append(Character.toUpperCase(c));
+        }
+        return constant.toString();
+    }
+
+    private static class FieldBinding {
+        private final String name;
+        private final String constant;
+        private final String androidBy;
+        private final String iosBy;
+        private final boolean list;
+
+        private FieldBinding(String name, String constant, String androidBy, String iosBy, boolean list) {
+            this.name = name;
+            this.constant = constant;
+            this.androidBy = androidBy;
+            this.iosBy = iosBy;
+            this.list = list;
+        }
+    }
+}
@@ -5,52 +5,86 @@ import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
+import utils.ArtifactRetention;
 import utils.ConfigManager;
+import utils.Screenshot;
+import utils.ScreenshotStore;
 import utils.ScreenshotUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class ExtentReportManager {
     private static final Logger logger = LoggerFactory.getLogger(ExtentReportManager.class);
     private static ExtentReports extent;
     private static final ThreadLocal<ExtentTest> test = new ThreadLocal<>();
+    private static final boolean SCREENSHOT_ON_PASS = ConfigManager.getBooleanProperty("screenshot.on.pass", false);
+    private static final boolean SCREENSHOT_ON_FAILURE = ConfigManager.getBooleanProperty("screenshot.on.failure", true);
+    private static final boolean SCREENSHOT_THUMBNAILS = ConfigManager.getBooleanProperty("report.screenshot.thumbnails", true);
+    // Budget for the live model; only used by the thread applying report events
+    static final ReportBudget liveBudget = new ReportBudget();
+    private static String reportPath;
     private static final String REPORT_PATH = ConfigManager.getProperty("report.path", "test-output/ExtentReport.html");
 
     public static synchronized ExtentReports createInstance() {
         if (extent == null) {
-            String reportPath = getReportPath();
-            ExtentSparkReporter sparkReporter = new ExtentSparkReporter(reportPath);
-
-            sparkReporter.config().setTheme(getTheme());
-            sparkReporter.config().setDocumentTitle("Mobile Automation Test Report");
-            sparkReporter.config().setReportName(ConfigManager.getProperty("report.title", "Mobile Test Report"));
-            sparkReporter.config().setTimeStampFormat("EEEE, MMMM dd, yyyy, hh:mm a '('zzz')'");
+            reportPath = buildReportPath();
 
             extent = new ExtentReports();
-            extent.attachReporter(sparkReporter);
+            // In streaming mode the HTML is rendered from the on-disk event log, so the
+            // live model only holds tests that are still running
+            if (!ReportEventLog.isEnabled()) {
+                extent.attachReporter(newSparkReporter(reportPath));
+            }
 
             // System information
-            extent.setSystemInfo("Platform", System.getProperty("os.name"));
-            extent.setSystemInfo("Java Version", System.getProperty("java.version"));
-            extent.setSystemInfo("Test Platform", ConfigManager.getProperty("test.platform", "Unknown"));
-            extent.setSystemInfo("Device Name", getDeviceName());
-            extent.setSystemInfo("Platform Version", getPlatformVersion());
+            Map<String, String> systemInfo = new LinkedHashMap<>();
+            systemInfo.put("Platform", System.getProperty("os.name"));
+            systemInfo.put("Java Version", System.getProperty("java.version"));
+            systemInfo.put("Test Platform", ConfigManager.getProperty("test.platform", "Unknown"));
+            systemInfo.put("Device Name", getDeviceName());
+            systemInfo.put("Platform Version", getPlatformVersion());
 
             // Jenkins information if available
-            addJenkinsInfo();
+            addJenkinsInfo(systemInfo);
+
+            systemInfo.forEach(extent::setSystemInfo);
+            if (ReportEventLog.isEnabled()) {
+                ReportEventLog.open(reportPath, systemInfo);
+            }
 
             logger.info("Extent Report initialized at: {}", reportPath);
         }
         return extent;
     }
 
-    private static String getReportPath() {
+    static ExtentSparkReporter newSparkReporter(String path) {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(path);
+        sparkReporter.config().setTheme(getTheme());
+        sparkReporter.config().setDocumentTitle("Mobile Automation Test Report");
+        sparkReporter.config().setReportName(ConfigManager.getProperty("report.title", "Mobile Test Report"));
+        sparkReporter.config().setTimeStampFormat("EEEE, MMMM dd, yyyy, hh:mm a '('zzz')'");
+        return sparkReporter;
+    }
+
+    /**
+     * Path of the HTML report for this run, or null before createInstance()
+     */
+    public static String getReportPath() {
+        return reportPath;
+    }
+
+    private static String buildReportPath() {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-        String reportDir = "test-output/reports";
+        String reportDir = ArtifactRetention.partition("reports");
         new File(reportDir).mkdirs();
         return reportDir + "/ExtentReport_" + timestamp + ".html";
     }
@@ -74,49 +108,107 @@ public class ExtentReportManager {
                 : ConfigManager.getProperty("ios.platform.version", "Unknown");
     }
 
-    private static void addJenkinsInfo() {
+    private static void addJenkinsInfo(Map<String, String> systemInfo) {
         String buildUrl = ConfigManager.getProperty("jenkins.build.url");
         String buildNumber = ConfigManager.getProperty("jenkins.build.number");
         String jobName = ConfigManager.getProperty("jenkins.job.name");
 
-        if (buildUrl != null) extent.setSystemInfo("Build URL", buildUrl);
-        if (buildNumber != null) extent.setSystemInfo("Build Number", buildNumber);
-        if (jobName != null) extent.setSystemInfo("Job Name", jobName);
+        if (buildUrl != null) systemInfo.put("Build URL", buildUrl);
+        if (buildNumber != null) systemInfo.put("Build Number", buildNumber);
+        if (jobName != null) systemInfo.put("Job Name", jobName);
     }
 
     public static synchronized ExtentTest createTest(String testName, String description) {
+        return createTest(testName, description, null);
+    }
+
+    /**
+     * Create a test with a stable key (e.g. feature path and line) that identifies
+     * retries of the same scenario across runs and shards
+     */
+    public static synchronized ExtentTest createTest(String testName, String description, String key) {
         ExtentTest extentTest = createInstance().createTest(testName, description);
         test.set(extentTest);
+        if (ReportEventLog.isEnabled()) {
+            ReportEventLog.testCreated(extentTest, testName, description, key);
+        }
         return extentTest;
     }
 
-    public static synchronized ExtentTest getTest() {
+    public static ExtentTest getTest() {
         return test.get();
     }
 
     public static void logInfo(String message) {
         ExtentTest currentTest = getTest();
         if (currentTest != null) {
-            currentTest.log(Status.INFO, message);
+            ReportEventPipeline.log(currentTest, Status.INFO, message);
         }
     }
 
     public static void logPass(String message) {
         ExtentTest currentTest = getTest();
         if (currentTest != null) {
-            currentTest.log(Status.PASS, message);
-            if (ConfigManager.getBooleanProperty("screenshot.on.pass", false)) {
+            ReportEventPipeline.log(currentTest, Status.PASS, message);
+            // A passing action ends the current failure point
+            ScreenshotUtils.resetFailureScreenshot();
+            if (SCREENSHOT_ON_PASS) {
                 attachScreenshot();
             }
         }
     }
 
+    /**
+     * Log an INFO entry at the given verbosity to the report and to the caller's logger
+     * (INFO for ACTIONS, DEBUG for DEBUG). The message is built once, and only if an output wants it.
+     */
+    public static void logInfo(ReportVerbosity level, Logger log, Supplier<String> message) {
+        ExtentTest currentTest = getTest();
+        String text = gatedMessage(level, currentTest, log, message);
+        if (text != null && currentTest != null) {
+            ReportEventPipeline.log(currentTest, Status.INFO, text);
+        }
+    }
+
+    /**
+     * Like {@link #logInfo(ReportVerbosity, Logger, Supplier)} for a completed action; a
+     * suppressed entry still ends the current failure point
+     */
+    public static void logPass(ReportVerbosity level, Logger log, Supplier<String> message) {
+        ExtentTest currentTest = getTest();
+        String text = gatedMessage(level, currentTest, log, message);
+        if (text != null && currentTest != null) {
+            logPass(text);
+        } else if (currentTest != null) {
+            ScreenshotUtils.resetFailureScreenshot();
+        }
+    }
+
+    private static String gatedMessage(ReportVerbosity level, ExtentTest currentTest, Logger log, Supplier<String> message) {
+        if (!level.isEnabled()) {
+            return null;
+        }
+        boolean toLog = level == ReportVerbosity.DEBUG ? log.isDebugEnabled() : log.isInfoEnabled();
+        if (currentTest == null && !toLog) {
+            return null;
+        }
+        String text = message.get();
+        if (toLog) {
+            if (level == ReportVerbosity.DEBUG) {
+                log.debug(text);
+            } else {
+                log.info(text);
+            }
+        }
+        return text;
+    }
+
     public static void logFail(String message) {
         ExtentTest currentTest = getTest();
         if (currentTest != null) {
-            currentTest.log(Status.FAIL, message);
-            if (ConfigManager.getBooleanProperty("screenshot.on.failure", true)) {
-                attachScreenshot();
+            ReportEventPipeline.log(currentTest, Status.FAIL, message);
+            if (SCREENSHOT_ON_FAILURE) {
+                attachFailureScreenshot();
             }
         }
     }
@@ -124,7 +216,7 @@ public class ExtentReportManager {
     public static void logSkip(String message) {
         ExtentTest currentTest = getTest();
         if (currentTest != null) {
-            currentTest.log(Status.SKIP, message);
+            ReportEventPipeline.log(currentTest, Status.SKIP, message);
         }
     }
 
@@ -134,7 +226,24 @@ public class ExtentReportManager {
             if (currentTest != null) {
                 String screenshotPath = ScreenshotUtils.captureScreenshot();
                 if (screenshotPath != null) {
-                    currentTest.addScreenCaptureFromPath(screenshotPath);
+                    ReportEventPipeline.attachScreenshot(currentTest, screenshotPath);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to attach screenshot", e);
+        }
+    }
+
+    /**
+     * Attach the failure point's screenshot, capturing it only if no earlier failure log did
+     */
+    public static void attachFailureScreenshot() {
+        try {
+            ExtentTest currentTest = getTest();
+            if (currentTest != null) {
+                Screenshot screenshot = ScreenshotUtils.captureForFailure();
+                if (screenshot != null && screenshot.markAttachedToReport()) {
+                    ReportEventPipeline.attachScreenshot(currentTest, screenshot.getPath());
                 }
             }
         } catch (Exception e) {
@@ -142,14 +251,62 @@ public class ExtentReportManager {
         }
     }
 
-    public static synchronized void flush() {
-        if (extent != null) {
-            extent.flush();
-            logger.info("Extent Report flushed successfully");
+    /**
+     * Add a screenshot to a test. With thumbnails on, the entry shows a small lazy-loaded
+     * preview that links to the full image, so the browser only fetches frames on click.
+     */
+    static void addScreenshot(ExtentTest extentTest, String screenshotPath, String htmlPath) {
+        if (!SCREENSHOT_THUMBNAILS || htmlPath == null) {
+            extentTest.addScreenCaptureFromPath(screenshotPath);
+            return;
+        }
+        String fullImage = relativeTo(htmlPath, screenshotPath);
+        String thumbnailPath = ScreenshotStore.thumbnailPathFor(screenshotPath);
+        String preview = thumbnailPath != null ? relativeTo(htmlPath, thumbnailPath) : fullImage;
+        extentTest.log(Status.INFO, ReportBudget.ATTACHMENT_MARKER + " href='" + fullImage + "' target='_blank'>"
+                + "<img src='" + preview + "' loading='lazy' style='max-width:160px'"
+                + " onerror=\"this.onerror=null;this.src='" + fullImage + "'\"></a>");
+    }
+
+    private static String relativeTo(String htmlPath, String filePath) {
+        Path reportDir = Paths.get(htmlPath).toAbsolutePath().getParent();
+        return reportDir.relativize(Paths.get(filePath).toAbsolutePath()).toString().replace('\\', '/');
+    }
+
+    public static void flush() {
+        // Drain outside the lock: the event consumer applies events under the same monitor
+        ReportEventPipeline.awaitDrained();
+        ScreenshotUtils.awaitPendingWrites();
+        if (ReportEventLog.isEnabled()) {
+            ReportEventLog.close();
+            logger.info(ReportEventPipeline.getSummary());
+            return;
+        }
+        synchronized (ExtentReportManager.class) {
+            if (extent != null) {
+                extent.flush();
+                logger.info("Extent Report flushed successfully");
+                logger.info("Report budget collapsed {} INFO entries", liveBudget.getCollapsedEntries());
+                logger.info(ReportEventPipeline.getSummary());
+            }
         }
     }
 
     public static void endTest() {
+        ExtentTest currentTest = test.get();
+        if (currentTest != null) {
+            ReportEventPipeline.endTest(currentTest);
+        }
         test.remove();
     }
+
+    /**
+     * Drop a finished test from the live model once its events are on disk
+     */
+    static void releaseTest(ExtentTest finishedTest) {
+        liveBudget.release(finishedTest);
+        if (ReportEventLog.isEnabled() && extent != null) {
+            extent.removeTest(finishedTest);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package reporting;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import utils.ConfigManager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-test size budget for INFO entries. Once a test holds more INFO entries
+ * (or INFO text) than allowed, the oldest ones are folded into a single
+ * summary entry in their place, so long scenarios keep their recent detail
+ * without bloating the report. PASS/FAIL/SKIP entries and screenshots are
+ * never collapsed.
+ *
+ * Not thread-safe: each report model owns one instance and uses it from the
+ * thread that applies events to that model.
+ */
+class ReportBudget {
+    static final String ATTACHMENT_MARKER = "<a class='report-screenshot'";
+
+    private static final int MAX_INFO_ENTRIES = ConfigManager.getIntProperty("report.budget.info.entries", 200);
+    private static final int MAX_INFO_CHARS = ConfigManager.getIntProperty("report.budget.info.chars", 64 * 1024);
+
+    private final Map<ExtentTest, TestBudget> budgets = new HashMap<>();
+    private long collapsedEntries;
+
+    static boolean isEnabled() {
+        return MAX_INFO_ENTRIES > 0 || MAX_INFO_CHARS > 0;
+    }
+
+    /**
+     * Account for an entry just logged to the test, collapsing old INFO entries if over budget
+     */
+    void afterLog(ExtentTest test, Status status, String message) {
+        if (status != Status.INFO || !isEnabled()) {
+            return;
+        }
+        TestBudget budget = budgets.computeIfAbsent(test, t -> new TestBudget());
+        budget.infoEntries++;
+        budget.infoChars += message != null ? message.length() : 0;
+
+        if (budget.isExceeded()) {
+            collapse(test, budget);
+        }
+    }
+
+    void release(ExtentTest test) {
+        budgets.remove(test);
+    }
+
+    long getCollapsedEntries() {
+        return collapsedEntries;
+    }
+
+    private void collapse(ExtentTest test, TestBudget budget) {
+        List<Log> logs = test.getModel().getLogs();
+        synchronized (logs) {
+            Iterator<Log> iterator = logs.iterator();
+            while (budget.isExceeded() && iterator.hasNext()) {
+                Log log = iterator.next();
+                if (log == budget.summary || !isCollapsible(log)) {
+                    continue;
+                }
+                // Keep the latest INFO entry even if it alone is over the character budget
+                if (budget.infoEntries <= 1) {
+                    break;
+                }
+                String details = log.getDetails();
+                budget.infoEntries--;
+                budget.infoChars -= details != null ? details.length() : 0;
+                budget.collapsed++;
+                collapsedEntries++;
+
+                if (budget.summary == null) {
+                    // The oldest collapsed entry becomes the summary, so it stays in place
+                    budget.summary = log;
+                } else {
+                    iterator.remove();
+                }
+            }
+            if (budget.summary != null) {
+                budget.summary.setDetails(budget.collapsed + " earlier INFO entries collapsed to stay within the report budget");
+            }
+        }
+    }
+
+    private static boolean isCollapsible(Log log) {
+        return log.getStatus() == Status.INFO
+                && (log.getDetails() == null || !log.getDetails().startsWith(ATTACHMENT_MARKER));
+    }
+
+    private static class TestBudget {
+        private int infoEntries;
+        private long infoChars;
+        private int collapsed;
+        private Log summary;
+
+        private boolean isExceeded() {
+            return (MAX_INFO_ENTRIES > 0 && infoEntries > MAX_INFO_ENTRIES)
+                    || (MAX_INFO_CHARS > 0 && infoChars > MAX_INFO_CHARS);
+        }
+    }
+}
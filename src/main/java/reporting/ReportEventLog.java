@@ -0,0 +1,278 @@
+package reporting;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only JSONL log of report events, written as the run goes. One line
+ * per event; a test's lines are flushed to disk when it ends. The HTML report
+ * is rendered from this log by {@link ReportRebuilder} on a fixed interval and
+ * at suite end, so a crashed run still leaves a usable report behind.
+ * <p>
+ * The interval rebuilds render only the last report.streaming.rebuild.window
+ * tests, read from the byte offset where the oldest of them starts, so their
+ * heap and time stay flat however long the run is. The final rebuild replays
+ * the whole log.
+ */
+public class ReportEventLog {
+    private static final Logger logger = LoggerFactory.getLogger(ReportEventLog.class);
+
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("report.streaming.enabled", false);
+    private static final int REBUILD_INTERVAL_SECONDS =
+            ConfigManager.getIntProperty("report.streaming.rebuild.interval", 120);
+    private static final int REBUILD_WINDOW = ConfigManager.getIntProperty("report.streaming.rebuild.window", 200);
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<ExtentTest, Long> testIds = new ConcurrentHashMap<>();
+    private static final AtomicLong nextTestId = new AtomicLong();
+    private static final AtomicLong eventsWritten = new AtomicLong();
+    private static final AtomicLong testsWritten = new AtomicLong();
+    // Log offsets of the last REBUILD_WINDOW test starts, oldest first; guarded by the class lock
+    private static final Deque<Long> recentTestOffsets = new ArrayDeque<>();
+    private static final Map<String, String> systemInfo = new LinkedHashMap<>();
+    private static long bytesWritten;
+    private static long testsStarted;
+
+    private static BufferedWriter writer;
+    private static String logPath;
+    private static String htmlPath;
+    private static ScheduledExecutorService rebuildScheduler;
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Event log path that belongs to an HTML report path
+     */
+    public static String logPathFor(String reportPath) {
+        return reportPath.replace(".html", "_events.jsonl");
+    }
+
+    static synchronized void open(String reportPath, Map<String, String> info) {
+        if (writer != null) {
+            return;
+        }
+        htmlPath = reportPath;
+        logPath = logPathFor(reportPath);
+        try {
+            Path path = Paths.get(logPath);
+            bytesWritten = Files.exists(path) ? Files.size(path) : 0;
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.error("Failed to open report event log: {}", logPath, e);
+            return;
+        }
+        systemInfo.putAll(info);
+        for (Map.Entry<String, String> item : systemInfo.entrySet()) {
+            Map<String, Object> entry = entry("info");
+            entry.put("key", item.getKey());
+            entry.put("value", item.getValue());
+            write(entry);
+        }
+
+        if (REBUILD_INTERVAL_SECONDS > 0) {
+            rebuildScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "report-rebuilder");
+                thread.setDaemon(true);
+                return thread;
+            });
+            rebuildScheduler.scheduleWithFixedDelay(ReportEventLog::rebuildRecent,
+                    REBUILD_INTERVAL_SECONDS, REBUILD_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        logger.info("Streaming report events to: {}", logPath);
+    }
+
+    /**
+     * Stable scenario key built from a feature URI and line, the same for Cucumber JSON and the event log
+     */
+    public static String scenarioKey(String featureUri, long line) {
+        String path = featureUri.replace('\\', '/');
+        int features = path.lastIndexOf("features/");
+        if (features >= 0) {
+            path = path.substring(features);
+        } else if (path.contains("/")) {
+            path = path.substring(path.lastIndexOf('/') + 1);
+        }
+        return path + ":" + line;
+    }
+
+    static void testCreated(ExtentTest test, String name, String description, String key) {
+        long id = nextTestId.incrementAndGet();
+        testIds.put(test, id);
+        Map<String, Object> entry = entry("test");
+        entry.put("test", id);
+        entry.put("name", name);
+        entry.put("description", description);
+        if (key != null) {
+            entry.put("key", key);
+        }
+        write(entry);
+    }
+
+    static void logged(ExtentTest test, Status status, String message) {
+        Long id = testIds.get(test);
+        if (id == null) {
+            return;
+        }
+        Map<String, Object> entry = entry("log");
+        entry.put("test", id);
+        entry.put("status", status.name());
+        entry.put("message", message);
+        write(entry);
+    }
+
+    static void screenshotAttached(ExtentTest test, String screenshotPath) {
+        Long id = testIds.get(test);
+        if (id == null) {
+            return;
+        }
+        Map<String, Object> entry = entry("screenshot");
+        entry.put("test", id);
+        entry.put("path", screenshotPath);
+        write(entry);
+    }
+
+    static void testEnded(ExtentTest test) {
+        Long id = testIds.remove(test);
+        if (id == null) {
+            return;
+        }
+        Map<String, Object> entry = entry("end");
+        entry.put("test", id);
+        write(entry);
+        testsWritten.incrementAndGet();
+        flushWriter();
+    }
+
+    private static Map<String, Object> entry(String type) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("type", type);
+        entry.put("time", System.currentTimeMillis());
+        return entry;
+    }
+
+    private static synchronized void write(Map<String, Object> entry) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            String line = mapper.writeValueAsString(entry) + System.lineSeparator();
+            if ("test".equals(entry.get("type"))) {
+                testsStarted++;
+                recentTestOffsets.addLast(bytesWritten);
+                if (recentTestOffsets.size() > REBUILD_WINDOW) {
+                    recentTestOffsets.removeFirst();
+                }
+            }
+            writer.write(line);
+            bytesWritten += line.getBytes(StandardCharsets.UTF_8).length;
+            eventsWritten.incrementAndGet();
+        } catch (IOException e) {
+            logger.error("Failed to write report event", e);
+        }
+    }
+
+    private static synchronized void flushWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Failed to flush report event log", e);
+        }
+    }
+
+    /**
+     * Re-render the HTML report from the most recent tests only; the whole log when no window is set
+     */
+    static void rebuildRecent() {
+        if (REBUILD_WINDOW <= 0) {
+            rebuild();
+            return;
+        }
+        long fromOffset;
+        long omitted;
+        Map<String, String> info;
+        synchronized (ReportEventLog.class) {
+            flushWriter();
+            if (logPath == null || recentTestOffsets.isEmpty()) {
+                return;
+            }
+            fromOffset = recentTestOffsets.peekFirst();
+            omitted = testsStarted - recentTestOffsets.size();
+            info = new LinkedHashMap<>(systemInfo);
+        }
+        try {
+            ReportRebuilder.rebuildRecent(logPath, htmlPath, fromOffset, info, omitted);
+        } catch (Exception e) {
+            logger.error("Failed to rebuild report from {}", logPath, e);
+        }
+    }
+
+    /**
+     * Re-render the HTML report from everything logged so far
+     */
+    static void rebuild() {
+        flushWriter();
+        if (logPath != null) {
+            try {
+                ReportRebuilder.rebuild(logPath, htmlPath);
+            } catch (Exception e) {
+                logger.error("Failed to rebuild report from {}", logPath, e);
+            }
+        }
+    }
+
+    /**
+     * Stop periodic rebuilds, close the log and render the final report
+     */
+    static void close() {
+        synchronized (ReportEventLog.class) {
+            if (rebuildScheduler != null) {
+                rebuildScheduler.shutdownNow();
+                rebuildScheduler = null;
+            }
+        }
+        rebuild();
+        synchronized (ReportEventLog.class) {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.error("Failed to close report event log", e);
+                }
+                writer = null;
+            }
+        }
+        logger.info(getSummary());
+    }
+
+    public static String getSummary() {
+        return String.format("Report Event Log - Tests: %d, Events: %d, Still open: %d, Log: %s",
+                testsWritten.get(), eventsWritten.get(), testIds.size(), logPath);
+    }
+}
@@ -0,0 +1,206 @@
+package reporting;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Report logging as an event pipeline. Test threads append events to their
+ * own lock-free buffer; a single consumer thread drains each buffer in FIFO
+ * order and applies the events to the Extent model. A test is logged from
+ * one thread only, so per-test ordering is kept.
+ *
+ * Buffers are bounded. When one is full, INFO events are dropped (and
+ * counted); PASS/FAIL/SKIP events make the producer wait for the consumer.
+ *
+ * With streaming enabled the consumer also appends each applied event to the
+ * {@link ReportEventLog}, and drops a test from the live model once it ends.
+ */
+public class ReportEventPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ReportEventPipeline.class);
+
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("report.pipeline.enabled", true);
+    private static final int BUFFER_CAPACITY = ConfigManager.getIntProperty("report.pipeline.buffer.size", 1024);
+
+    private static final List<EventBuffer> buffers = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<EventBuffer> localBuffer = ThreadLocal.withInitial(() -> {
+        EventBuffer buffer = new EventBuffer();
+        buffers.add(buffer);
+        return buffer;
+    });
+
+    private static final AtomicLong enqueued = new AtomicLong();
+    private static final AtomicLong applied = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final AtomicLong backpressureWaits = new AtomicLong();
+    private static final AtomicInteger maxBufferDepth = new AtomicInteger();
+
+    private static volatile Thread consumer;
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    static void log(ExtentTest test, Status status, String message) {
+        dispatch(new ReportEvent(test, status, message, null, false));
+    }
+
+    static void attachScreenshot(ExtentTest test, String screenshotPath) {
+        dispatch(new ReportEvent(test, null, null, screenshotPath, false));
+    }
+
+    /**
+     * Mark a test as finished; queued behind its own events so it is persisted last
+     */
+    static void endTest(ExtentTest test) {
+        dispatch(new ReportEvent(test, null, null, null, true));
+    }
+
+    private static void dispatch(ReportEvent event) {
+        if (ENABLED) {
+            publish(event);
+        } else {
+            apply(event);
+        }
+    }
+
+    private static void publish(ReportEvent event) {
+        ensureConsumer();
+        EventBuffer buffer = localBuffer.get();
+
+        while (buffer.size.get() >= BUFFER_CAPACITY) {
+            if (event.status == Status.INFO) {
+                dropped.incrementAndGet();
+                return;
+            }
+            backpressureWaits.incrementAndGet();
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        buffer.events.offer(event);
+        maxBufferDepth.accumulateAndGet(buffer.size.incrementAndGet(), Math::max);
+        enqueued.incrementAndGet();
+    }
+
+    private static void ensureConsumer() {
+        if (consumer == null) {
+            synchronized (ReportEventPipeline.class) {
+                if (consumer == null) {
+                    Thread thread = new Thread(ReportEventPipeline::consume, "report-event-consumer");
+                    thread.setDaemon(true);
+                    thread.start();
+                    consumer = thread;
+                }
+            }
+        }
+    }
+
+    private static void consume() {
+        while (true) {
+            if (drainOnce() == 0) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+    }
+
+    /**
+     * Apply everything currently buffered. Runs on the consumer thread only.
+     */
+    private static int drainOnce() {
+        int count = 0;
+        for (EventBuffer buffer : buffers) {
+            ReportEvent event;
+            while ((event = buffer.events.poll()) != null) {
+                buffer.size.decrementAndGet();
+                apply(event);
+                applied.incrementAndGet();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void apply(ReportEvent event) {
+        try {
+            // Shares the monitor used by ExtentReportManager.createTest
+            synchronized (ExtentReportManager.class) {
+                if (event.ended) {
+                    ExtentReportManager.releaseTest(event.test);
+                } else if (event.screenshotPath != null) {
+                    ExtentReportManager.addScreenshot(event.test, event.screenshotPath, ExtentReportManager.getReportPath());
+                } else {
+                    event.test.log(event.status, event.message);
+                    ExtentReportManager.liveBudget.afterLog(event.test, event.status, event.message);
+                }
+            }
+            if (ReportEventLog.isEnabled()) {
+                persist(event);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to apply report event", e);
+        }
+    }
+
+    private static void persist(ReportEvent event) {
+        if (event.ended) {
+            ReportEventLog.testEnded(event.test);
+        } else if (event.screenshotPath != null) {
+            ReportEventLog.screenshotAttached(event.test, event.screenshotPath);
+        } else {
+            ReportEventLog.logged(event.test, event.status, event.message);
+        }
+    }
+
+    /**
+     * Wait until every event published so far has been applied to the report model
+     */
+    static void awaitDrained() {
+        if (!ENABLED || consumer == null) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (applied.get() < enqueued.get() && System.currentTimeMillis() < deadline) {
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+    }
+
+    public static String getSummary() {
+        return String.format("Report Pipeline - Enqueued: %d, Applied: %d, Dropped: %d, "
+                        + "Backpressure waits: %d, Max buffer depth: %d",
+                enqueued.get(), applied.get(), dropped.get(), backpressureWaits.get(), maxBufferDepth.get());
+    }
+
+    private static class EventBuffer {
+        private final Queue<ReportEvent> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+    }
+
+    private static class ReportEvent {
+        private final ExtentTest test;
+        private final Status status;
+        private final String message;
+        private final String screenshotPath;
+        private final boolean ended;
+
+        private ReportEvent(ExtentTest test, Status status, String message, String screenshotPath, boolean ended) {
+            this.test = test;
+            this.status = status;
+            this.message = message;
+            this.screenshotPath = screenshotPath;
+            this.ended = ended;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders an HTML Extent report from a {@link ReportEventLog} file. Used for
+ * the periodic rebuilds during a run (recent tests only) and the final one
+ * (the whole log), and standalone to recover the report of a run that
+ * crashed or timed out:
+ *
+ * <pre>java -cp ... reporting.ReportRebuilder test-output/reports/ExtentReport_..._events.jsonl [report.html]</pre>
+ */
+public class ReportRebuilder {
+    private static final Logger logger = LoggerFactory.getLogger(ReportRebuilder.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: ReportRebuilder <events.jsonl> [report.html]");
+            System.exit(2);
+        }
+        String logPath = args[0];
+        String htmlPath = args.length > 1 ? args[1] : logPath.replace("_events.jsonl", ".html");
+        try {
+            int tests = rebuild(logPath, htmlPath);
+            logger.info("Rebuilt report with {} tests: {}", tests, htmlPath);
+        } catch (IOException e) {
+            logger.error("Failed to rebuild report from {}", logPath, e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Stream the event log into a fresh report and write it to htmlPath.
+     * Returns the number of tests rendered.
+     */
+    public static synchronized int rebuild(String logPath, String htmlPath) throws IOException {
+        ExtentReports report = newReport(htmlPath);
+        int tests;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(logPath), StandardCharsets.UTF_8)) {
+            tests = replay(report, reader, logPath, htmlPath);
+        }
+        report.flush();
+        return tests;
+    }
+
+    /**
+     * Render only the tests that start at or after fromOffset in the log, with the
+     * run's system info and a note of how many earlier tests the final report will add.
+     * Returns the number of tests rendered.
+     */
+    static synchronized int rebuildRecent(String logPath, String htmlPath, long fromOffset,
+                                          Map<String, String> systemInfo, long omittedTests) throws IOException {
+        ExtentReports report = newReport(htmlPath);
+        systemInfo.forEach(report::setSystemInfo);
+        if (omittedTests > 0) {
+            report.setSystemInfo("Earlier tests", omittedTests + " not shown until the run ends");
+        }
+        int tests;
+        try (FileChannel channel = FileChannel.open(Paths.get(logPath), StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(channel.position(fromOffset),
+                     StandardCharsets.UTF_8))) {
+            tests = replay(report, reader, logPath, htmlPath);
+        }
+        report.flush();
+        return tests;
+    }
+
+    private static ExtentReports newReport(String htmlPath) {
+        ExtentReports report = new ExtentReports();
+        report.attachReporter(ExtentReportManager.newSparkReporter(htmlPath));
+        return report;
+    }
+
+    private static int replay(ExtentReports report, BufferedReader reader, String logPath, String htmlPath)
+            throws IOException {
+        Map<Long, ExtentTest> openTests = new HashMap<>();
+        ReportBudget budget = new ReportBudget();
+        int tests = 0;
+        int unreadable = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            JsonNode entry;
+            try {
+                entry = mapper.readTree(line);
+            } catch (IOException e) {
+                // Typically the last, partially written line of a crashed run
+                unreadable++;
+                continue;
+            }
+            if (apply(report, openTests, budget, htmlPath, entry)) {
+                tests++;
+            }
+        }
+        if (unreadable > 0) {
+            logger.warn("Skipped {} unreadable lines in {}", unreadable, logPath);
+        }
+        return tests;
+    }
+
+    /**
+     * Apply one log entry; returns true if it started a new test
+     */
+    private static boolean apply(ExtentReports report, Map<Long, ExtentTest> openTests, ReportBudget budget,
+                                 String htmlPath, JsonNode entry) {
+        String type = entry.path("type").asText();
+        long testId = entry.path("test").asLong();
+        Date time = new Date(entry.path("time").asLong(System.currentTimeMillis()));
+
+        if ("info".equals(type)) {
+            report.setSystemInfo(entry.path("key").asText(), entry.path("value").asText());
+            return false;
+        }
+        if ("test".equals(type)) {
+            ExtentTest test = report.createTest(entry.path("name").asText(), entry.path("description").asText(null));
+            test.getModel().setStartTime(time);
+            if (entry.hasNonNull("category")) {
+                test.assignCategory(entry.get("category").asText());
+            }
+            openTests.put(testId, test);
+            return true;
+        }
+
+        ExtentTest test = openTests.get(testId);
+        if (test == null) {
+            return false;
+        }
+        switch (type) {
+            case "log":
+                Status status = Status.valueOf(entry.path("status").asText());
+                String message = entry.path("message").asText();
+                test.log(status, message);
+                // Keep the time the line was logged, not the time of the rebuild
+                List<Log> logs = test.getModel().getLogs();
+                if (!logs.isEmpty()) {
+                    logs.get(logs.size() - 1).setTimestamp(time);
+                }
+                budget.afterLog(test, status, message);
+                break;
+            case "screenshot":
+                ExtentReportManager.addScreenshot(test, entry.path("path").asText(), htmlPath);
+                break;
+            case "end":
+                test.getModel().setEndTime(time);
+                budget.release(test);
+                openTests.remove(testId);
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+}
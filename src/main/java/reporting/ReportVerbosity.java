@@ -0,0 +1,35 @@
+package reporting;
+
+import utils.ConfigManager;
+
+/**
+ * How much detail goes into the report and the matching SLF4J output, set
+ * with report.verbosity. Each level includes the ones before it; failures
+ * are always reported.
+ */
+public enum ReportVerbosity {
+    /** Scenario and step results only */
+    STEPS,
+    /** Plus page actions such as clicks, typing and navigation */
+    ACTIONS,
+    /** Plus waits, presence checks and other element detail */
+    DEBUG;
+
+    private static final ReportVerbosity CURRENT = parse(ConfigManager.getProperty("report.verbosity", "actions"));
+
+    public static ReportVerbosity current() {
+        return CURRENT;
+    }
+
+    public boolean isEnabled() {
+        return CURRENT.ordinal() >= ordinal();
+    }
+
+    private static ReportVerbosity parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ACTIONS;
+        }
+    }
+}
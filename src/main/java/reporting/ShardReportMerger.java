@@ -0,0 +1,429 @@
+package reporting;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Merges the results of a suite split across several JVMs or machines. Each
+ * shard is a test-output directory holding reports/*_events.jsonl (see
+ * {@link ReportEventLog}) and/or cucumber-reports/*.json. Writes one
+ * Cucumber JSON, one event log and one HTML report:
+ *
+ * <pre>java -cp ... reporting.ShardReportMerger [--no-html] merged-output shard-1/test-output shard-2/test-output ...</pre>
+ *
+ * Inputs are streamed twice: once to index every scenario attempt and time
+ * each shard, once to copy the winning attempts. Only the index (one small
+ * entry per scenario) is held in memory. When a scenario ran more than once
+ * (retries, re-run shards) the latest attempt wins.
+ */
+public class ShardReportMerger {
+    private static final Logger logger = LoggerFactory.getLogger(ShardReportMerger.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final Path outputDir;
+    private final List<Shard> shards = new ArrayList<>();
+    private final Map<String, Attempt> cucumberWinners = new HashMap<>();
+    private final Map<String, Attempt> eventWinners = new HashMap<>();
+    private long sequence;
+
+    public ShardReportMerger(Path outputDir, List<Path> shardDirs) throws IOException {
+        this.outputDir = outputDir;
+        for (Path shardDir : shardDirs) {
+            shards.add(new Shard(shardDir));
+        }
+    }
+
+    public static void main(String[] args) {
+        boolean renderHtml = true;
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            if ("--no-html".equals(arg)) {
+                renderHtml = false;
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Usage: ShardReportMerger [--no-html] <output-dir> <shard-dir>...");
+            System.exit(2);
+        }
+        try {
+            List<Path> shardDirs = paths.subList(1, paths.size()).stream().map(Paths::get).collect(Collectors.toList());
+            new ShardReportMerger(Paths.get(paths.get(0)), shardDirs).merge(renderHtml);
+        } catch (IOException e) {
+            logger.error("Failed to merge shard reports", e);
+            System.exit(1);
+        }
+    }
+
+    public void merge(boolean renderHtml) throws IOException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(outputDir.resolve("cucumber-reports"));
+
+        // Pass 1: index attempts and time each shard
+        sequence = 0;
+        for (Shard shard : shards) {
+            for (Path file : shard.cucumberFiles) {
+                streamFeatures(file, feature -> indexFeature(shard, feature));
+            }
+            for (Path file : shard.eventLogs) {
+                indexEventLog(shard, file);
+            }
+        }
+
+        // Pass 2: copy the winning attempts
+        sequence = 0;
+        Path cucumberOut = outputDir.resolve("cucumber-reports/Cucumber.json");
+        Path eventsOut = outputDir.resolve("MergedReport_events.jsonl");
+        try (JsonGenerator cucumber = mapper.getFactory().createGenerator(Files.newBufferedWriter(cucumberOut, StandardCharsets.UTF_8));
+             BufferedWriter events = Files.newBufferedWriter(eventsOut, StandardCharsets.UTF_8)) {
+            cucumber.writeStartArray();
+            writeShardInfo(events);
+            long[] nextTestId = {0};
+            for (Shard shard : shards) {
+                for (Path file : shard.cucumberFiles) {
+                    streamFeatures(file, feature -> writeFeature(shard, feature, cucumber));
+                }
+                for (Path file : shard.eventLogs) {
+                    copyEventLog(shard, file, events, nextTestId);
+                }
+            }
+            cucumber.writeEndArray();
+        }
+
+        if (renderHtml) {
+            ReportRebuilder.rebuild(eventsOut.toString(), outputDir.resolve("MergedReport.html").toString());
+        }
+        logger.info(getSummary(System.currentTimeMillis() - start));
+    }
+
+    // ---- Cucumber JSON ----
+
+    private interface FeatureVisitor {
+        void visit(ObjectNode feature) throws IOException;
+    }
+
+    /**
+     * Read a Cucumber JSON array one feature at a time
+     */
+    private static void streamFeatures(Path file, FeatureVisitor visitor) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(file.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                logger.warn("Not a Cucumber JSON array: {}", file);
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode feature = mapper.readTree(parser);
+                if (feature instanceof ObjectNode) {
+                    visitor.visit((ObjectNode) feature);
+                }
+            }
+        }
+    }
+
+    private void indexFeature(Shard shard, ObjectNode feature) {
+        String uri = feature.path("uri").asText();
+        for (JsonNode element : feature.path("elements")) {
+            if (!isScenario(element)) {
+                continue;
+            }
+            long startMillis = startMillis(element);
+            long durationMillis = durationNanos(element) / 1_000_000;
+            offer(cucumberWinners, ReportEventLog.scenarioKey(uri, element.path("line").asLong()), startMillis);
+            shard.cucumberTiming.record(startMillis, startMillis + durationMillis, isFailed(element));
+        }
+    }
+
+    private void writeFeature(Shard shard, ObjectNode feature, JsonGenerator out) throws IOException {
+        String uri = feature.path("uri").asText();
+        ArrayNode kept = mapper.createArrayNode();
+        JsonNode pendingBackground = null;
+        for (JsonNode element : feature.path("elements")) {
+            if (!isScenario(element)) {
+                // A background belongs to the scenario that follows it
+                pendingBackground = element;
+                continue;
+            }
+            String key = ReportEventLog.scenarioKey(uri, element.path("line").asLong());
+            if (isWinner(cucumberWinners, key)) {
+                if (pendingBackground != null) {
+                    kept.add(pendingBackground);
+                }
+                kept.add(element);
+            } else {
+                shard.duplicatesDropped++;
+            }
+            pendingBackground = null;
+        }
+        if (kept.size() > 0) {
+            feature.set("elements", kept);
+            mapper.writeTree(out, feature);
+        }
+    }
+
+    private static boolean isScenario(JsonNode element) {
+        return !"background".equals(element.path("type").asText());
+    }
+
+    private static boolean isFailed(JsonNode element) {
+        for (String section : new String[]{"before", "steps", "after"}) {
+            for (JsonNode step : element.path(section)) {
+                if ("failed".equals(step.path("result").path("status").asText())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long durationNanos(JsonNode element) {
+        long total = 0;
+        for (String section : new String[]{"before", "steps", "after"}) {
+            for (JsonNode step : element.path(section)) {
+                total += step.path("result").path("duration").asLong();
+            }
+        }
+        return total;
+    }
+
+    private static long startMillis(JsonNode element) {
+        String timestamp = element.path("start_timestamp").asText(null);
+        if (timestamp == null) {
+            return 0;
+        }
+        try {
+            return Instant.parse(timestamp).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    // ---- Extent event logs ----
+
+    private void indexEventLog(Shard shard, Path file) throws IOException {
+        Map<Long, long[]> openTests = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode entry = parse(line);
+                if (entry == null) {
+                    continue;
+                }
+                String type = entry.path("type").asText();
+                long testId = entry.path("test").asLong();
+                long time = entry.path("time").asLong();
+                if ("test".equals(type)) {
+                    offer(eventWinners, eventKey(entry), time);
+                    // start time, failed flag
+                    openTests.put(testId, new long[]{time, 0});
+                } else if ("log".equals(type) && "FAIL".equals(entry.path("status").asText())) {
+                    long[] test = openTests.get(testId);
+                    if (test != null) {
+                        test[1] = 1;
+                    }
+                } else if ("end".equals(type)) {
+                    long[] test = openTests.remove(testId);
+                    if (test != null) {
+                        shard.eventTiming.record(test[0], time, test[1] == 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private void copyEventLog(Shard shard, Path file, BufferedWriter out, long[] nextTestId) throws IOException {
+        // Old test id -> merged test id, for tests whose attempt won
+        Map<Long, Long> keptTests = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JsonNode entry = parse(line);
+                if (!(entry instanceof ObjectNode)) {
+                    continue;
+                }
+                ObjectNode node = (ObjectNode) entry;
+                String type = node.path("type").asText();
+                long testId = node.path("test").asLong();
+
+                if ("test".equals(type)) {
+                    if (!isWinner(eventWinners, eventKey(node))) {
+                        shard.duplicatesDropped++;
+                        continue;
+                    }
+                    keptTests.put(testId, ++nextTestId[0]);
+                    node.put("category", shard.name);
+                } else if ("info".equals(type) || !keptTests.containsKey(testId)) {
+                    continue;
+                }
+                node.put("test", keptTests.get(testId));
+                if ("end".equals(type)) {
+                    keptTests.remove(testId);
+                }
+                out.write(mapper.writeValueAsString(node));
+                out.newLine();
+            }
+        }
+    }
+
+    private void writeShardInfo(BufferedWriter out) throws IOException {
+        for (Shard shard : shards) {
+            ObjectNode info = mapper.createObjectNode();
+            info.put("type", "info");
+            info.put("key", "Shard " + shard.name);
+            info.put("value", shard.timing().describe());
+            out.write(mapper.writeValueAsString(info));
+            out.newLine();
+        }
+    }
+
+    private static String eventKey(JsonNode entry) {
+        return entry.hasNonNull("key")
+                ? entry.get("key").asText()
+                : entry.path("name").asText() + "|" + entry.path("description").asText();
+    }
+
+    private static JsonNode parse(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        try {
+            return mapper.readTree(line);
+        } catch (IOException e) {
+            // Partial last line of a shard that crashed
+            return null;
+        }
+    }
+
+    // ---- Deduplication ----
+
+    private void offer(Map<String, Attempt> winners, String key, long startMillis) {
+        long ordinal = ++sequence;
+        Attempt current = winners.get(key);
+        if (current == null) {
+            winners.put(key, new Attempt(ordinal, startMillis));
+            return;
+        }
+        current.attempts++;
+        if (startMillis > current.startMillis || (startMillis == current.startMillis && ordinal > current.ordinal)) {
+            current.ordinal = ordinal;
+            current.startMillis = startMillis;
+        }
+    }
+
+    /**
+     * Second pass: the attempt seen at this position is the one to keep
+     */
+    private boolean isWinner(Map<String, Attempt> winners, String key) {
+        long ordinal = ++sequence;
+        Attempt winner = winners.get(key);
+        return winner != null && winner.ordinal == ordinal;
+    }
+
+    public String getSummary(long elapsedMillis) {
+        long retried = Stream.concat(cucumberWinners.values().stream(), eventWinners.values().stream())
+                .filter(attempt -> attempt.attempts > 1).count();
+        StringBuilder summary = new StringBuilder(String.format(
+                "Shard Merge - Shards: %d, Scenarios: %d, Retried: %d, Merged in %d ms, Output: %s",
+                shards.size(), Math.max(cucumberWinners.size(), eventWinners.size()), retried, elapsedMillis, outputDir));
+        for (Shard shard : shards) {
+            summary.append(String.format("%n  %s - %s, Duplicates dropped: %d",
+                    shard.name, shard.timing().describe(), shard.duplicatesDropped));
+        }
+        return summary.toString();
+    }
+
+    private static class Attempt {
+        private long ordinal;
+        private long startMillis;
+        private int attempts = 1;
+
+        private Attempt(long ordinal, long startMillis) {
+            this.ordinal = ordinal;
+            this.startMillis = startMillis;
+        }
+    }
+
+    private static class Shard {
+        private final String name;
+        private final List<Path> cucumberFiles;
+        private final List<Path> eventLogs;
+        private final ShardTiming cucumberTiming = new ShardTiming();
+        private final ShardTiming eventTiming = new ShardTiming();
+        private long duplicatesDropped;
+
+        private Shard(Path dir) throws IOException {
+            Path fileName = dir.toAbsolutePath().normalize().getFileName();
+            // "shard-1/test-output" is named after the shard, not after test-output
+            if (fileName != null && "test-output".equals(fileName.toString()) && dir.toAbsolutePath().normalize().getParent() != null) {
+                fileName = dir.toAbsolutePath().normalize().getParent().getFileName();
+            }
+            this.name = fileName != null ? fileName.toString() : dir.toString();
+            try (Stream<Path> files = Files.walk(dir)) {
+                List<Path> all = files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                this.eventLogs = all.stream()
+                        .filter(p -> p.getFileName().toString().endsWith("_events.jsonl"))
+                        .collect(Collectors.toList());
+                this.cucumberFiles = all.stream()
+                        .filter(p -> p.getFileName().toString().endsWith(".json")
+                                && p.getParent() != null && "cucumber-reports".equals(p.getParent().getFileName().toString()))
+                        .collect(Collectors.toList());
+            }
+        }
+
+        /**
+         * Cucumber results are canonical; the event log covers shards without them
+         */
+        private ShardTiming timing() {
+            return cucumberTiming.scenarios > 0 ? cucumberTiming : eventTiming;
+        }
+    }
+
+    private static class ShardTiming {
+        private int scenarios;
+        private int failed;
+        private long busyMillis;
+        private long firstStart = Long.MAX_VALUE;
+        private long lastEnd = Long.MIN_VALUE;
+
+        private void record(long start, long end, boolean isFailed) {
+            scenarios++;
+            if (isFailed) {
+                failed++;
+            }
+            busyMillis += Math.max(0, end - start);
+            if (start > 0) {
+                firstStart = Math.min(firstStart, start);
+                lastEnd = Math.max(lastEnd, end);
+            }
+        }
+
+        private String describe() {
+            long wallMillis = lastEnd > firstStart ? lastEnd - firstStart : busyMillis;
+            return String.format("Scenarios: %d, Failed: %d, Wall: %.1f s, Busy: %.1f s",
+                    scenarios, failed, wallMillis / 1000.0, busyMillis / 1000.0);
+        }
+    }
+}
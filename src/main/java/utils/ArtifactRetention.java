@@ -0,0 +1,229 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retention for everything under test-output. Artifacts are written to
+ * date-partitioned directories (test-output/&lt;area&gt;/yyyy-MM-dd), so expiry
+ * is decided per partition from its name instead of per file. A background
+ * thread removes partitions older than the age quota, then the oldest
+ * partitions until the total size is under the size quota. The current run's
+ * partition is never touched. Loose files from before partitioning are
+ * expired by modification time. Areas listed in retention.exclude (the
+ * scenario history by default) are left alone.
+ */
+public class ArtifactRetention {
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactRetention.class);
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+
+    private static final String ROOT = ConfigManager.getProperty("retention.root", "test-output");
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("retention.enabled", true);
+    private static final int MAX_AGE_DAYS = ConfigManager.getIntProperty("retention.max.age.days", 7);
+    // Areas that hold state across runs rather than per-run artifacts
+    private static final Set<String> EXCLUDED_AREAS = new HashSet<>(Arrays.asList(
+            ConfigManager.getProperty("retention.exclude", "history").split("\\s*,\\s*")));
+    private static final long MAX_SIZE_BYTES = ConfigManager.getIntProperty("retention.max.size.mb", 2048) * 1024L * 1024L;
+
+    // Fixed at startup so a run that crosses midnight keeps one partition
+    private static final String RUN_PARTITION = LocalDate.now().format(PARTITION_FORMAT);
+
+    private static final AtomicLong filesDeleted = new AtomicLong();
+    private static final AtomicLong bytesReclaimed = new AtomicLong();
+    private static final AtomicLong partitionsDeleted = new AtomicLong();
+    private static volatile Thread sweeper;
+    private static volatile long sweepMillis = -1;
+
+    /**
+     * Directory for this run's artifacts of the given area, e.g. "screenshots"
+     */
+    public static String partition(String area) {
+        return ROOT + "/" + area + "/" + RUN_PARTITION;
+    }
+
+    /**
+     * Start the retention sweep on a background thread; returns immediately
+     */
+    public static synchronized void startAsync() {
+        if (!ENABLED || sweeper != null) {
+            return;
+        }
+        Thread thread = new Thread(ArtifactRetention::sweep, "artifact-retention");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        sweeper = thread;
+    }
+
+    static void sweep() {
+        long start = System.currentTimeMillis();
+        Path root = Paths.get(ROOT);
+        if (!Files.isDirectory(root)) {
+            sweepMillis = 0;
+            return;
+        }
+        try {
+            LocalDate oldestKept = LocalDate.now().minusDays(MAX_AGE_DAYS);
+            long cutoffMillis = start - TimeUnit.DAYS.toMillis(MAX_AGE_DAYS);
+            List<Partition> kept = new ArrayList<>();
+
+            try (DirectoryStream<Path> areas = Files.newDirectoryStream(root, Files::isDirectory)) {
+                for (Path area : areas) {
+                    if (EXCLUDED_AREAS.contains(area.getFileName().toString())) {
+                        continue;
+                    }
+                    sweepArea(area, oldestKept, cutoffMillis, kept);
+                }
+            }
+            enforceSizeQuota(kept);
+        } catch (IOException e) {
+            logger.error("Artifact retention sweep failed under {}", ROOT, e);
+        }
+        sweepMillis = System.currentTimeMillis() - start;
+        logger.info(getSummary());
+    }
+
+    private static void sweepArea(Path area, LocalDate oldestKept, long cutoffMillis, List<Partition> kept) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(area)) {
+            for (Path entry : entries) {
+                LocalDate date = partitionDate(entry);
+                if (date == null) {
+                    // Loose file or directory from before partitioning
+                    if (Files.getLastModifiedTime(entry).toMillis() < cutoffMillis) {
+                        delete(entry);
+                    }
+                } else if (date.isBefore(oldestKept)) {
+                    delete(entry);
+                    partitionsDeleted.incrementAndGet();
+                } else if (!RUN_PARTITION.equals(entry.getFileName().toString())) {
+                    kept.add(new Partition(entry, date));
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete the oldest partitions until everything kept fits the size quota
+     */
+    private static void enforceSizeQuota(List<Partition> kept) throws IOException {
+        if (MAX_SIZE_BYTES <= 0) {
+            return;
+        }
+        long total = sizeOf(Paths.get(ROOT));
+        kept.sort((a, b) -> a.date.compareTo(b.date));
+        for (Partition partition : kept) {
+            if (total <= MAX_SIZE_BYTES) {
+                break;
+            }
+            total -= delete(partition.path);
+            partitionsDeleted.incrementAndGet();
+        }
+        if (total > MAX_SIZE_BYTES) {
+            logger.warn("test-output is {} MB, over the {} MB quota, after removing all older partitions",
+                    total / (1024 * 1024), MAX_SIZE_BYTES / (1024 * 1024));
+        }
+    }
+
+    private static LocalDate partitionDate(Path entry) {
+        if (!Files.isDirectory(entry)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(entry.getFileName().toString(), PARTITION_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long sizeOf(Path path) throws IOException {
+        AtomicLong size = new AtomicLong();
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                size.addAndGet(attributes.size());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size.get();
+    }
+
+    /**
+     * Delete a file or directory tree; returns the bytes reclaimed
+     */
+    private static long delete(Path path) throws IOException {
+        AtomicLong reclaimed = new AtomicLong();
+        Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                try {
+                    Files.delete(file);
+                    reclaimed.addAndGet(attributes.size());
+                    filesDeleted.incrementAndGet();
+                } catch (IOException e) {
+                    logger.debug("Could not delete {}: {}", file, e.getMessage());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                try {
+                    Files.deleteIfExists(dir);
+                } catch (IOException ignored) {
+                    // Not empty: something in it could not be deleted
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        bytesReclaimed.addAndGet(reclaimed.get());
+        return reclaimed.get();
+    }
+
+    public static String getSummary() {
+        if (!ENABLED) {
+            return "Artifact Retention - Disabled";
+        }
+        return String.format("Artifact Retention - %s, Files deleted: %d, Partitions removed: %d, Reclaimed: %d MB",
+                sweepMillis < 0 ? "Sweep in progress" : "Sweep took " + sweepMillis + " ms",
+                filesDeleted.get(), partitionsDeleted.get(), bytesReclaimed.get() / (1024 * 1024));
+    }
+
+    private static class Partition {
+        private final Path path;
+        private final LocalDate date;
+
+        private Partition(Path path, LocalDate date) {
+            this.path = path;
+            this.date = date;
+        }
+    }
+}
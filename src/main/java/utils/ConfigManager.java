@@ -6,18 +6,33 @@ import org.slf4j.LoggerFactory;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Configuration access. config.properties and system property overrides are
+ * resolved once into an immutable {@link ConfigSnapshot}. Per-thread scopes
+ * (test context, platform tag, device session) overlay keys on top of it
+ * instead of mutating shared state, so parallel Android and iOS runs never
+ * see each other's values.
+ */
 public class ConfigManager {
     private static final Logger logger = LoggerFactory.getLogger(ConfigManager.class);
-    private static Properties properties = new Properties();
-    private static boolean isLoaded = false;
+    private static final ConfigSnapshot base = loadSnapshot();
+    private static final Map<String, ConfigSnapshot> namedScopes = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ConfigSnapshot> threadScope = new ThreadLocal<>();
+    // Scope each enterScope replaced, innermost first; base stands for no thread scope
+    private static final ThreadLocal<Deque<ConfigSnapshot>> enteredFrom = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final Set<String> warnedKeys = ConcurrentHashMap.newKeySet();
 
-    static {
-        loadProperties();
-    }
-
-    private static void loadProperties() {
+    private static ConfigSnapshot loadSnapshot() {
+        Properties properties = new Properties();
         try {
             // Try to load from classpath first
             InputStream inputStream = ConfigManager.class.getClassLoader()
@@ -26,14 +41,12 @@ public class ConfigManager {
             if (inputStream != null) {
                 properties.load(inputStream);
                 inputStream.close();
-                isLoaded = true;
                 logger.info("Configuration loaded from classpath");
             } else {
                 // Fallback to file system
                 String configPath = System.getProperty("config.path", "src/test/resources/config.properties");
                 try (FileInputStream fileInputStream = new FileInputStream(configPath)) {
                     properties.load(fileInputStream);
-                    isLoaded = true;
                     logger.info("Configuration loaded from file: {}", configPath);
                 }
             }
@@ -41,48 +54,137 @@ public class ConfigManager {
             logger.error("Failed to load configuration properties", e);
             throw new RuntimeException("Configuration loading failed", e);
         }
-    }
 
-    public static String getProperty(String key) {
-        if (!isLoaded) {
-            loadProperties();
+        Map<String, String> values = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            values.put(key, properties.getProperty(key));
         }
-
-        // Check system properties first (for runtime overrides)
-        String systemProperty = System.getProperty(key);
-        if (systemProperty != null && !systemProperty.isEmpty()) {
-            return systemProperty;
+        // System properties win (for runtime overrides)
+        Properties systemProperties = System.getProperties();
+        for (String key : systemProperties.stringPropertyNames()) {
+            String systemProperty = systemProperties.getProperty(key);
+            if (systemProperty != null && !systemProperty.isEmpty()) {
+                values.put(key, systemProperty);
+            }
         }
+        return new ConfigSnapshot("base", values, null);
+    }
+
+    /**
+     * Configuration in effect on this thread: the innermost scope, or the base snapshot
+     */
+    public static ConfigSnapshot snapshot() {
+        ConfigSnapshot scope = threadScope.get();
+        return scope != null ? scope : base;
+    }
 
-        String value = properties.getProperty(key);
+    public static String getProperty(String key) {
+        String value = snapshot().get(key);
         if (value == null) {
-            logger.warn("Property '{}' not found in configuration", key);
+            warnOnce(key, "Property '{}' not found in configuration", null);
         }
         return value;
     }
 
     public static String getProperty(String key, String defaultValue) {
-        String value = getProperty(key);
-        return value != null ? value : defaultValue;
+        return snapshot().get(key, defaultValue);
     }
 
     public static boolean getBooleanProperty(String key, boolean defaultValue) {
-        String value = getProperty(key);
-        return value != null ? Boolean.parseBoolean(value) : defaultValue;
+        return snapshot().getBoolean(key, defaultValue);
     }
 
     public static int getIntProperty(String key, int defaultValue) {
-        String value = getProperty(key);
-        try {
-            return value != null ? Integer.parseInt(value) : defaultValue;
-        } catch (NumberFormatException e) {
-            logger.warn("Invalid integer value for property '{}': {}", key, value);
-            return defaultValue;
+        return snapshot().getInt(key, defaultValue);
+    }
+
+    public static double getDoubleProperty(String key, double defaultValue) {
+        return snapshot().getDouble(key, defaultValue);
+    }
+
+    /**
+     * Register a named scope (e.g. a TestNG suite or test) layered on parent, or on the base snapshot if parent is null
+     */
+    public static ConfigSnapshot defineScope(String name, ConfigSnapshot parent, Map<String, String> overrides) {
+        ConfigSnapshot scope = (parent != null ? parent : base).withOverrides(name, overrides);
+        namedScopes.put(name, scope);
+        logger.debug("Config scope '{}' defined with {}", name, overrides);
+        return scope;
+    }
+
+    /**
+     * Named scope, or null if none was defined
+     */
+    public static ConfigSnapshot getScope(String name) {
+        return namedScopes.get(name);
+    }
+
+    /**
+     * Make the scope current on this thread; undo with {@link #exitScope()}
+     */
+    public static void enterScope(ConfigSnapshot scope) {
+        if (scope != null) {
+            enter(scope);
+        }
+    }
+
+    /**
+     * Enter a child of the current scope with the given keys overridden
+     */
+    public static ConfigSnapshot enterScope(String name, Map<String, String> overrides) {
+        ConfigSnapshot scope = snapshot().withOverrides(name, overrides);
+        enter(scope);
+        return scope;
+    }
+
+    private static void enter(ConfigSnapshot scope) {
+        enteredFrom.get().push(snapshot());
+        threadScope.set(scope);
+    }
+
+    /**
+     * Return to the scope this thread was in before the matching enterScope
+     */
+    public static void exitScope() {
+        ConfigSnapshot previous = enteredFrom.get().poll();
+        if (previous == null || previous == base) {
+            threadScope.remove();
+        } else {
+            threadScope.set(previous);
         }
     }
 
-    public static void setProperty(String key, String value) {
-        properties.setProperty(key, value);
-        logger.debug("Property '{}' set to '{}'", key, value);
+    /**
+     * Leave every scope entered on this thread
+     */
+    public static void clearScope() {
+        threadScope.remove();
+        enteredFrom.remove();
+    }
+
+    /**
+     * Wrap a task so it runs with the caller's current scope on whatever thread executes it
+     */
+    public static <T> Callable<T> inCurrentScope(Callable<T> task) {
+        ConfigSnapshot scope = snapshot();
+        return () -> {
+            ConfigSnapshot previous = threadScope.get();
+            threadScope.set(scope);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    threadScope.set(previous);
+                } else {
+                    threadScope.remove();
+                }
+            }
+        };
+    }
+
+    static void warnOnce(String key, String message, String value) {
+        if (warnedKeys.add(key)) {
+            logger.warn(message, key, value);
+        }
     }
 }
@@ -0,0 +1,102 @@
+package utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Immutable, fully resolved configuration: file properties with system
+ * property overrides already applied. Typed values are parsed once per key
+ * and cached, so repeated reads are a single map lookup. Scopes (a test
+ * context, a platform, a device session) are child snapshots that overlay a
+ * few keys on their parent without changing it.
+ */
+public final class ConfigSnapshot {
+    private static final Object INVALID = new Object();
+
+    private final String name;
+    private final Map<String, String> values;
+    private final ConfigSnapshot parent;
+    private final Map<String, Object> booleans = new ConcurrentHashMap<>();
+    private final Map<String, Object> ints = new ConcurrentHashMap<>();
+    private final Map<String, Object> doubles = new ConcurrentHashMap<>();
+
+    ConfigSnapshot(String name, Map<String, String> values, ConfigSnapshot parent) {
+        this.name = name;
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+        this.parent = parent;
+    }
+
+    /**
+     * Child snapshot with the given keys overridden; this snapshot is unchanged
+     */
+    public ConfigSnapshot withOverrides(String scopeName, Map<String, String> overrides) {
+        Map<String, String> merged = new HashMap<>(values);
+        overrides.forEach((key, value) -> {
+            if (value != null) {
+                merged.put(key, value);
+            }
+        });
+        return new ConfigSnapshot(scopeName, merged, this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    ConfigSnapshot getParent() {
+        return parent;
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public String get(String key, String defaultValue) {
+        String value = values.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = booleans.get(key);
+        if (value == null) {
+            String raw = values.get(key);
+            value = raw != null ? Boolean.valueOf(raw.trim()) : INVALID;
+            booleans.put(key, value);
+        }
+        return value != INVALID ? (Boolean) value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = ints.get(key);
+        if (value == null) {
+            value = parse(key, raw -> Integer.valueOf(raw.trim()));
+            ints.put(key, value);
+        }
+        return value != INVALID ? (Integer) value : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        Object value = doubles.get(key);
+        if (value == null) {
+            value = parse(key, raw -> Double.valueOf(raw.trim()));
+            doubles.put(key, value);
+        }
+        return value != INVALID ? (Double) value : defaultValue;
+    }
+
+    private Object parse(String key, Function<String, Object> parser) {
+        String raw = values.get(key);
+        if (raw == null) {
+            return INVALID;
+        }
+        try {
+            return parser.apply(raw);
+        } catch (NumberFormatException e) {
+            ConfigManager.warnOnce(key, "Invalid numeric value for property '{}': {}", raw);
+            return INVALID;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package utils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One captured frame. The same bytes feed the file on disk, the Extent report
+ * and the Cucumber attachment, so a failure point costs a single device round-trip.
+ */
+public class Screenshot {
+    private final byte[] bytes;
+    private final String path;
+    private final AtomicBoolean attachedToReport = new AtomicBoolean();
+
+    Screenshot(byte[] bytes, String path) {
+        this.bytes = bytes;
+        this.path = path;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * True only for the first caller, so the report gets each frame once
+     */
+    public boolean markAttachedToReport() {
+        return attachedToReport.compareAndSet(false, true);
+    }
+}
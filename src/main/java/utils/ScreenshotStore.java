@@ -0,0 +1,184 @@
+package utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Content-addressed screenshot storage. Files are named by the SHA-256 of the
+ * captured frame, so an identical screen captured again (retries, other
+ * threads) is written only once. Frames are optionally downscaled and
+ * re-encoded (e.g. JPEG) before they hit the disk, and a small thumbnail is
+ * stored next to each frame for the report to show inline.
+ */
+public class ScreenshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(ScreenshotStore.class);
+    private static final String STORE_DIR = ArtifactRetention.partition("screenshots");
+
+    private static final boolean ENABLED = ConfigManager.getBooleanProperty("screenshot.store.hashed", true);
+    private static final String FORMAT = supportedFormat(ConfigManager.getProperty("screenshot.format", "jpg").toLowerCase());
+    private static final float QUALITY = (float) ConfigManager.getDoubleProperty("screenshot.quality", 0.7);
+    private static final int MAX_WIDTH = ConfigManager.getIntProperty("screenshot.max.width", 720);
+    private static final int THUMBNAIL_WIDTH = ConfigManager.getIntProperty("screenshot.thumbnail.width", 160);
+
+    private static final Set<String> claimedPaths = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong framesStored = new AtomicLong();
+    private static final AtomicLong duplicateFrames = new AtomicLong();
+    private static final AtomicLong bytesCaptured = new AtomicLong();
+    private static final AtomicLong bytesWritten = new AtomicLong();
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * The configured format if ImageIO can write it, else PNG, so a typo fails once here and not on every frame
+     */
+    private static String supportedFormat(String format) {
+        if (ImageIO.getImageWritersByFormatName(writerName(format)).hasNext()) {
+            return format;
+        }
+        logger.warn("No image writer for screenshot.format={}, storing screenshots as png", format);
+        return "png";
+    }
+
+    private static String writerName(String format) {
+        return "jpg".equals(format) ? "jpeg" : format;
+    }
+
+    /**
+     * Storage path for a captured PNG, derived from its content
+     */
+    public static String pathFor(byte[] pngBytes) {
+        String hash = sha256(pngBytes);
+        return STORE_DIR + "/" + hash.substring(0, 2) + "/" + hash + "." + FORMAT;
+    }
+
+    /**
+     * Path of the small preview stored next to a frame, or null when thumbnails are off
+     */
+    public static String thumbnailPathFor(String path) {
+        if (!ENABLED || THUMBNAIL_WIDTH <= 0) {
+            return null;
+        }
+        int dot = path.lastIndexOf('.');
+        return path.substring(0, dot) + "_thumb" + path.substring(dot);
+    }
+
+    /**
+     * True if the caller should write this path; false if the frame is already stored or being stored
+     */
+    static boolean claim(String path) {
+        if (!claimedPaths.add(path) || new File(path).exists()) {
+            duplicateFrames.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Downscale, re-encode and write a frame and its thumbnail; runs on the screenshot writer thread
+     */
+    static void write(byte[] pngBytes, String path) {
+        try {
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(pngBytes));
+            byte[] encoded = image == null || ("png".equals(FORMAT) && MAX_WIDTH <= 0)
+                    ? pngBytes
+                    : encode(image, MAX_WIDTH);
+            writeAtomically(new File(path), encoded);
+            bytesWritten.addAndGet(encoded.length);
+
+            String thumbnailPath = thumbnailPathFor(path);
+            if (thumbnailPath != null && image != null) {
+                byte[] thumbnail = encode(image, THUMBNAIL_WIDTH);
+                writeAtomically(new File(thumbnailPath), thumbnail);
+                bytesWritten.addAndGet(thumbnail.length);
+            }
+
+            framesStored.incrementAndGet();
+            bytesCaptured.addAndGet(pngBytes.length);
+        } catch (IOException | RuntimeException e) {
+            // Release the claim so a later capture of the same frame can retry the write
+            claimedPaths.remove(path);
+            logger.error("Failed to store screenshot: {}", path, e);
+        }
+    }
+
+    private static void writeAtomically(File target, byte[] bytes) throws IOException {
+        target.getParentFile().mkdirs();
+        // Write then rename so readers never see a partial file
+        File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+        Files.write(temp.toPath(), bytes);
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static byte[] encode(BufferedImage image, int maxWidth) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (maxWidth > 0 && width > maxWidth) {
+            height = Math.max(1, height * maxWidth / width);
+            width = maxWidth;
+        }
+        // JPEG has no alpha channel, so always draw onto an RGB canvas
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(writerName(FORMAT)).next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed() && !"png".equals(FORMAT)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(QUALITY);
+            }
+            writer.write(null, new IIOImage(scaled, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String getSummary() {
+        long captured = bytesCaptured.get();
+        return String.format("Screenshot Store - Frames written: %d, Duplicates skipped: %d, "
+                        + "Captured: %d KB, Written: %d KB, Saved: %.0f%%",
+                framesStored.get(), duplicateFrames.get(), captured / 1024, bytesWritten.get() / 1024,
+                captured > 0 ? 100.0 * (captured - bytesWritten.get()) / captured : 0.0);
+    }
+}
@@ -12,10 +12,22 @@ import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Screenshot service: captures PNG bytes once and writes files on a bounded
+ * background executor so the test thread never waits on disk I/O. When the
+ * queue is full the caller writes the file itself, which bounds memory.
+ */
 public class ScreenshotUtils {
     private static final Logger logger = LoggerFactory.getLogger(ScreenshotUtils.class);
-    private static final String SCREENSHOT_DIR = "test-output/screenshots";
+    private static final String SCREENSHOT_DIR = ArtifactRetention.partition("screenshots");
+
+    private static final ThreadLocal<Screenshot> failureScreenshot = new ThreadLocal<>();
+    private static final ThreadPoolExecutor writer = createWriter();
 
     static {
         createScreenshotDirectory();
@@ -29,37 +41,107 @@ public class ScreenshotUtils {
         }
     }
 
+    private static ThreadPoolExecutor createWriter() {
+        int threads = ConfigManager.getIntProperty("screenshot.writer.threads", 2);
+        int queueSize = ConfigManager.getIntProperty("screenshot.writer.queue", 64);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-writer-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     public static String captureScreenshot() {
         return captureScreenshot(generateScreenshotName());
     }
 
     public static String captureScreenshot(String fileName) {
+        Screenshot screenshot = capture(fileName);
+        return screenshot != null ? screenshot.getPath() : null;
+    }
+
+    /**
+     * Capture the screen once and queue the PNG for writing
+     */
+    public static Screenshot capture(String fileName) {
         try {
             if (!DriverManager.isDriverInitialized()) {
                 logger.warn("Driver not initialized, cannot capture screenshot");
                 return null;
             }
 
-            TakesScreenshot takesScreenshot = (TakesScreenshot) DriverManager.getDriver();
-            File sourceFile = takesScreenshot.getScreenshotAs(OutputType.FILE);
-
-            String screenshotPath = SCREENSHOT_DIR + File.separator + fileName + ".png";
-            File destFile = new File(screenshotPath);
-
-            FileUtils.copyFile(sourceFile, destFile);
+            byte[] bytes = ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BYTES);
+            String screenshotPath;
+            if (ScreenshotStore.isEnabled()) {
+                // Content-addressed: identical frames share one file
+                screenshotPath = ScreenshotStore.pathFor(bytes);
+                if (ScreenshotStore.claim(screenshotPath)) {
+                    writer.execute(() -> ScreenshotStore.write(bytes, screenshotPath));
+                }
+            } else {
+                screenshotPath = SCREENSHOT_DIR + File.separator + fileName + ".png";
+                writer.execute(() -> writeFile(bytes, screenshotPath));
+            }
 
             logger.info("Screenshot captured: {}", screenshotPath);
-            return screenshotPath;
+            return new Screenshot(bytes, screenshotPath);
 
-        } catch (IOException e) {
-            logger.error("Failed to capture screenshot", e);
-            return null;
         } catch (Exception e) {
             logger.error("Unexpected error while capturing screenshot", e);
             return null;
         }
     }
 
+    /**
+     * Screenshot for the current failure point. Every failure report on this
+     * thread reuses it until {@link #resetFailureScreenshot()} is called.
+     */
+    public static Screenshot captureForFailure() {
+        Screenshot screenshot = failureScreenshot.get();
+        if (screenshot == null) {
+            screenshot = capture(generateScreenshotName());
+            if (screenshot != null) {
+                failureScreenshot.set(screenshot);
+            }
+        }
+        return screenshot;
+    }
+
+    /**
+     * Start a new failure point, e.g. after a passing action or at scenario boundaries
+     */
+    public static void resetFailureScreenshot() {
+        failureScreenshot.remove();
+    }
+
+    private static void writeFile(byte[] bytes, String path) {
+        try {
+            FileUtils.writeByteArrayToFile(new File(path), bytes);
+        } catch (IOException e) {
+            logger.error("Failed to write screenshot: {}", path, e);
+        }
+    }
+
+    /**
+     * Block until queued screenshots are on disk, e.g. before the report is flushed
+     */
+    public static void awaitPendingWrites() {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while ((writer.getActiveCount() > 0 || !writer.getQueue().isEmpty())
+                && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     private static String generateScreenshotName() {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss-SSS"));
         String threadId = String.valueOf(Thread.currentThread().getId());
@@ -67,36 +149,24 @@ public class ScreenshotUtils {
     }
 
     public static String captureScreenshotForScenario(String scenarioName) {
+        return captureScreenshot(scenarioFileName(scenarioName));
+    }
+
+    /**
+     * Reuse the failure point's screenshot if one was taken, otherwise capture one named after the scenario
+     */
+    public static Screenshot captureForFailedScenario(String scenarioName) {
+        Screenshot screenshot = failureScreenshot.get();
+        return screenshot != null ? screenshot : capture(scenarioFileName(scenarioName));
+    }
+
+    private static String scenarioFileName(String scenarioName) {
         String sanitizedName = sanitizeFileName(scenarioName);
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
-        String fileName = sanitizedName + "_" + timestamp;
-        return captureScreenshot(fileName);
+        return sanitizedName + "_" + timestamp;
     }
 
     private static String sanitizeFileName(String fileName) {
         return fileName.replaceAll("[^a-zA-Z0-9.-]", "_");
     }
-
-    public static void cleanupOldScreenshots(int daysToKeep) {
-        File screenshotDir = new File(SCREENSHOT_DIR);
-        if (screenshotDir.exists()) {
-            File[] files = screenshotDir.listFiles();
-            if (files != null) {
-                long cutoff = System.currentTimeMillis() - (daysToKeep * 24 * 60 * 60 * 1000L);
-                int deletedCount = 0;
-
-                for (File file : files) {
-                    if (file.lastModified() < cutoff) {
-                        if (file.delete()) {
-                            deletedCount++;
-                        }
-                    }
-                }
-
-                if (deletedCount > 0) {
-                    logger.info("Cleaned up {} old screenshot(s)", deletedCount);
-                }
-            }
-        }
-    }
 }
@@ -0,0 +1,59 @@
+package driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CommandMetricsTest {
+    private static final String COMMAND = "GET /session/{id}/element/{id}/displayed";
+
+    @Test
+    public void tasksOnOtherThreadsRecordIntoTheCallersScenarioAndPage() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            CommandMetrics.startScenario("context propagation");
+            String previousPage = CommandMetrics.enterPage("LoginPage");
+            Callable<Void> read = () -> {
+                CommandMetrics.record(new HttpRequest(HttpMethod.GET, "/session/1/element/2/displayed"), COMMAND, 2_000_000);
+                return null;
+            };
+            pool.submit(CommandMetrics.inCurrentContext(read)).get();
+            // Once the task is done the worker is back to no scenario, so this read goes to the run totals
+            pool.submit(read).get();
+            CommandMetrics.restorePage(previousPage);
+            CommandMetrics.endScenario();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        JsonNode commands = exportedScenario("context propagation").path("commands");
+        Assert.assertEquals(commands.size(), 1, "Only the caller-context read belongs to the scenario: " + commands);
+        Assert.assertEquals(commands.get(0).path("page").asText(), "LoginPage");
+        Assert.assertEquals(commands.get(0).path("count").asLong(), 1);
+    }
+
+    private static JsonNode exportedScenario(String name) throws IOException {
+        File file = File.createTempFile("command-metrics", ".json");
+        try {
+            CommandMetrics.exportJson(file.getPath());
+            for (JsonNode scenario : new ObjectMapper().readTree(file).path("scenarios")) {
+                if (name.equals(scenario.path("scenario").asText())) {
+                    return scenario;
+                }
+            }
+            throw new AssertionError("No exported scenario " + name);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+}
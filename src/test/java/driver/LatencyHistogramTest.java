@@ -0,0 +1,66 @@
+package driver;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getMeanMillis(), 0.0);
+        Assert.assertEquals(histogram.getPercentileMillis(99), 0.0);
+    }
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1000L);
+        }
+        Assert.assertEquals(histogram.getCount(), 1000);
+        Assert.assertEquals(histogram.getMeanMillis(), 500.5, 0.001);
+        Assert.assertEquals(histogram.getMaxMillis(), 1000.0, 0.001);
+        assertWithinBucket(histogram.getPercentileMillis(50), 500);
+        assertWithinBucket(histogram.getPercentileMillis(95), 950);
+        assertWithinBucket(histogram.getPercentileMillis(99), 990);
+        Assert.assertEquals(histogram.getPercentileMillis(100), 1000.0, 0.001);
+    }
+
+    @Test
+    public void percentileNeverExceedsMax() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_234);
+        Assert.assertEquals(histogram.getPercentileMillis(50), 1.234, 0.001);
+    }
+
+    @Test
+    public void mergeAddsSamples() {
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            fast.record(10_000);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(500_000);
+        }
+
+        LatencyHistogram run = new LatencyHistogram();
+        run.merge(fast);
+        run.merge(slow);
+
+        Assert.assertEquals(run.getCount(), 100);
+        Assert.assertEquals(run.getMeanMillis(), 59.0, 0.001);
+        Assert.assertEquals(run.getMaxMillis(), 500.0, 0.001);
+        assertWithinBucket(run.getPercentileMillis(50), 10);
+        assertWithinBucket(run.getPercentileMillis(95), 500);
+        // Merging leaves the source untouched
+        Assert.assertEquals(fast.getCount(), 90);
+    }
+
+    private static void assertWithinBucket(double actual, double expected) {
+        Assert.assertTrue(actual >= expected && actual <= expected * 1.125,
+                "Expected " + expected + " ms within one bucket but was " + actual + " ms");
+    }
+}
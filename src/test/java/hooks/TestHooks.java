@@ -2,9 +2,15 @@ package hooks;
 
 
 
+import driver.CommandMetrics;
 import driver.DriverManager;
 import reporting.ExtentReportManager;
+import reporting.ReportEventLog;
+import runners.ScenarioScheduler;
+import runners.TestRunner;
 import utils.ConfigManager;
+import utils.Screenshot;
+import utils.ScreenshotStore;
 import utils.ScreenshotUtils;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
@@ -12,6 +18,11 @@ import io.cucumber.java.Scenario;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+
 public class TestHooks {
     private static final Logger logger = LoggerFactory.getLogger(TestHooks.class);
 
@@ -19,6 +30,9 @@ public class TestHooks {
     public void setUp(Scenario scenario) {
         try {
             logger.info("Starting scenario: {}", scenario.getName());
+            ScenarioScheduler.scenarioStarted();
+            CommandMetrics.startScenario(scenario.getName());
+            ScreenshotUtils.resetFailureScreenshot();
 
             // Initialize driver if not already done
             if (!DriverManager.isDriverInitialized()) {
@@ -27,7 +41,8 @@ public class TestHooks {
             }
 
             // Create extent test
-            ExtentReportManager.createTest(scenario.getName(), "Scenario: " + scenario.getName());
+            ExtentReportManager.createTest(scenario.getName(), "Scenario: " + scenario.getName(),
+                    ReportEventLog.scenarioKey(scenario.getUri().toString(), scenario.getLine()));
             ExtentReportManager.logInfo("Scenario started: " + scenario.getName());
 
         } catch (Exception e) {
@@ -46,14 +61,11 @@ public class TestHooks {
             if (scenario.isFailed()) {
                 ExtentReportManager.logFail("Scenario failed: " + scenario.getName());
 
-                // Capture screenshot for failed scenarios
+                // Reuse the failure point's screenshot for the Cucumber report
                 try {
-                    String screenshotPath = ScreenshotUtils.captureScreenshotForScenario(scenario.getName());
-                    if (screenshotPath != null) {
-                        // Attach screenshot to Cucumber report
-                        byte[] screenshot = ((org.openqa.selenium.TakesScreenshot) DriverManager.getDriver())
-                                .getScreenshotAs(org.openqa.selenium.OutputType.BYTES);
-                        scenario.attach(screenshot, "image/png", "Screenshot");
+                    Screenshot screenshot = ScreenshotUtils.captureForFailedScenario(scenario.getName());
+                    if (screenshot != null) {
+                        attachToCucumber(scenario, screenshot);
                     }
                 } catch (Exception e) {
                     logger.error("Failed to capture screenshot for failed scenario", e);
@@ -67,19 +79,45 @@ public class TestHooks {
         } finally {
             // Clean up extent test
             ExtentReportManager.endTest();
+            ScenarioScheduler.scenarioFinished(
+                    ReportEventLog.scenarioKey(scenario.getUri().toString(), scenario.getLine()), scenario.isFailed());
+            CommandMetrics.endScenario();
+            ScreenshotUtils.resetFailureScreenshot();
+        }
+    }
+
+    /**
+     * Link to the stored file instead of embedding the image, unless embedding is requested
+     */
+    private void attachToCucumber(Scenario scenario, Screenshot screenshot) {
+        if (ScreenshotStore.isEnabled() && !ConfigManager.getBooleanProperty("screenshot.cucumber.embed", false)) {
+            // The screenshot may live under a different retention root than the report
+            Path reportDir = Paths.get(TestRunner.CUCUMBER_REPORT_DIR).toAbsolutePath();
+            Path relativePath = reportDir.relativize(Paths.get(screenshot.getPath()).toAbsolutePath());
+            scenario.attach(relativePath.toString().replace(File.separatorChar, '/'), "text/uri-list", "Screenshot");
+        } else {
+            scenario.attach(screenshot.getBytes(), "image/png", "Screenshot");
         }
     }
 
-    @Before("@android")
+    // Platform hooks run before setUp (lower order first) so the driver is created for the tagged platform
+
+    @Before(value = "@android", order = 0)
     public void setUpAndroid() {
         logger.info("Setting up Android-specific configuration");
-        ConfigManager.setProperty("test.platform", "android");
+        ConfigManager.enterScope("@android", Collections.singletonMap("test.platform", "android"));
     }
 
-    @Before("@ios")
+    @Before(value = "@ios", order = 0)
     public void setUpIOS() {
         logger.info("Setting up iOS-specific configuration");
-        ConfigManager.setProperty("test.platform", "ios");
+        ConfigManager.enterScope("@ios", Collections.singletonMap("test.platform", "ios"));
+    }
+
+    @After(value = "@android or @ios", order = 0)
+    public void tearDownPlatform() {
+        // Lowest order After hook runs last, after tearDown
+        ConfigManager.exitScope();
     }
 
     @After("@cleanup")
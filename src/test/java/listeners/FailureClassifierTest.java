@@ -0,0 +1,52 @@
+package listeners;
+
+import listeners.FailureClassifier.FailureClass;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.ConnectException;
+
+public class FailureClassifierTest {
+
+    @Test
+    public void deadSessionIsInfrastructure() {
+        Assert.assertEquals(FailureClassifier.classify(new NoSuchSessionException("gone")), FailureClass.INFRASTRUCTURE);
+    }
+
+    @Test
+    public void infrastructureCauseWinsOverTimeout() {
+        Throwable failure = new TimeoutException("wait ran out", new WebDriverException(new ConnectException("refused")));
+        Assert.assertEquals(FailureClassifier.classify(failure), FailureClass.INFRASTRUCTURE);
+    }
+
+    @Test
+    public void infrastructureIsRecognisedByMessage() {
+        Throwable failure = new WebDriverException("An unknown server-side error occurred: socket hang up");
+        Assert.assertEquals(FailureClassifier.classify(failure), FailureClass.INFRASTRUCTURE);
+    }
+
+    @Test
+    public void timingFailuresAreFlakyWaits() {
+        Assert.assertEquals(FailureClassifier.classify(new TimeoutException("no element")), FailureClass.FLAKY_WAIT);
+        Assert.assertEquals(FailureClassifier.classify(new StaleElementReferenceException("stale")), FailureClass.FLAKY_WAIT);
+        Assert.assertEquals(FailureClassifier.classify(new RuntimeException("step failed", new NoSuchElementException("x"))),
+                FailureClass.FLAKY_WAIT);
+    }
+
+    @Test
+    public void assertionIsProductBugEvenAfterTimeout() {
+        AssertionError failure = new AssertionError("Login should be successful");
+        failure.initCause(new TimeoutException("welcome label"));
+        Assert.assertEquals(FailureClassifier.classify(failure), FailureClass.PRODUCT_BUG);
+    }
+
+    @Test
+    public void unrecognisedFailureIsProductBug() {
+        Assert.assertEquals(FailureClassifier.classify(new IllegalStateException("unexpected")), FailureClass.PRODUCT_BUG);
+    }
+}
@@ -0,0 +1,279 @@
+package pages;
+
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.HasBrowserCheck;
+import io.appium.java_client.pagefactory.DefaultElementByBuilder;
+import io.appium.java_client.remote.SupportsContextSwitching;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import pages.generator.PageLocatorProcessor;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compiles an annotated fixture page with {@link PageLocatorProcessor} and
+ * checks that every generated locator looks up the same elements, in the same
+ * order, as the locator Appium's field decorator builds for that field.
+ */
+public class PageLocatorProcessorTest {
+
+    private static final String FIXTURE = String.join("\n",
+            "package fixtures;",
+            "",
+            "import io.appium.java_client.pagefactory.AndroidFindBy;",
+            "import io.appium.java_client.pagefactory.HowToUseLocators;",
+            "import io.appium.java_client.pagefactory.LocatorGroupStrategy;",
+            "import io.appium.java_client.pagefactory.iOSXCUITFindBy;",
+            "import org.openqa.selenium.WebElement;",
+            "",
+            "import java.util.List;",
+            "",
+            "public class FixturePage {",
+            "    @AndroidFindBy(accessibility = \"Log In\")",
+            "    @iOSXCUITFindBy(id = \"loginButton\")",
+            "    private WebElement loginButton;",
+            "",
+            "    @AndroidFindBy(uiAutomator = \"new UiSelector().className(\\\"android.widget.EditText\\\").instance(0)\")",
+            "    private WebElement androidOnly;",
+            "",
+            "    @iOSXCUITFindBy(iOSClassChain = \"**/XCUIElementTypeCell\")",
+            "    private List<WebElement> rows;",
+            "",
+            "    @AndroidFindBy(tagName = \"button\")",
+            "    @iOSXCUITFindBy(accessibility = \"Done\")",
+            "    private WebElement done;",
+            "",
+            "    @AndroidFindBy(className = \"android.widget.TextView\", priority = 2)",
+            "    @AndroidFindBy(xpath = \"//android.widget.TextView[@text='Welcome']\")",
+            "    @AndroidFindBy(accessibility = \"Welcome\", priority = 1)",
+            "    @HowToUseLocators(androidAutomation = LocatorGroupStrategy.ALL_POSSIBLE,",
+            "            iOSXCUITAutomation = LocatorGroupStrategy.ALL_POSSIBLE)",
+            "    @iOSXCUITFindBy(xpath = \"//XCUIElementTypeStaticText[@name='Welcome']\", priority = 1)",
+            "    @iOSXCUITFindBy(iOSNsPredicate = \"type == 'XCUIElementTypeStaticText' AND name == 'Welcome'\")",
+            "    private WebElement welcome;",
+            "}",
+            "");
+
+    private Path workDir;
+    private Class<?> page;
+    private Class<?> locators;
+
+    @BeforeClass
+    public void compileFixture() throws Exception {
+        workDir = Files.createTempDirectory("page-locators");
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        boolean compiled = compile("FixturePage", FIXTURE, diagnostics);
+        Assert.assertTrue(compiled, "Fixture page should compile: " + diagnostics);
+
+        URLClassLoader loader = new URLClassLoader(new URL[]{workDir.resolve("classes").toUri().toURL()},
+                getClass().getClassLoader());
+        page = loader.loadClass("fixtures.FixturePage");
+        locators = loader.loadClass("fixtures.FixturePageLocators");
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        if (workDir == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @DataProvider
+    public Object[][] fields() {
+        return new Object[][]{
+                {"loginButton", "LOGIN_BUTTON"}, {"androidOnly", "ANDROID_ONLY"}, {"rows", "ROWS"},
+                {"done", "DONE"}, {"welcome", "WELCOME"}};
+    }
+
+    @Test(dataProvider = "fields")
+    public void androidLocatorMatchesAppiumDecorator(String field, String constant) throws Exception {
+        Assert.assertEquals(lookups(generated(constant + "_ANDROID")), lookups(decorated(field, "Android", "UiAutomator2")),
+                "Android lookups for " + field);
+    }
+
+    @Test(dataProvider = "fields")
+    public void iosLocatorMatchesAppiumDecorator(String field, String constant) throws Exception {
+        Assert.assertEquals(lookups(generated(constant + "_IOS")), lookups(decorated(field, "iOS", "XCUITest")),
+                "iOS lookups for " + field);
+    }
+
+    @Test
+    public void missingPlatformFallsBackToFieldId() throws Exception {
+        Assert.assertEquals(generated("ANDROID_ONLY_IOS").toString(), By.id("androidOnly").toString());
+        Assert.assertEquals(generated("ROWS_ANDROID").toString(), By.id("rows").toString());
+    }
+
+    @Test
+    public void candidatesAreOrderedByPriority() throws Exception {
+        By android = generated("WELCOME_ANDROID");
+        Assert.assertTrue(android instanceof CandidateBy, "ALL_POSSIBLE should generate candidates");
+        Assert.assertEquals(((CandidateBy) android).getCandidates(), Arrays.asList(
+                AppiumBy.xpath("//android.widget.TextView[@text='Welcome']"),
+                AppiumBy.accessibilityId("Welcome"),
+                AppiumBy.className("android.widget.TextView")));
+
+        By ios = generated("WELCOME_IOS");
+        Assert.assertEquals(((CandidateBy) ios).getCandidates(), Arrays.asList(
+                AppiumBy.iOSNsPredicateString("type == 'XCUIElementTypeStaticText' AND name == 'Welcome'"),
+                AppiumBy.xpath("//XCUIElementTypeStaticText[@name='Welcome']")));
+    }
+
+    @Test
+    public void listFieldsGetListFactories() throws Exception {
+        Assert.assertEquals(locators.getDeclaredMethod("rows", PageElements.class).getReturnType(), List.class);
+        Assert.assertEquals(locators.getDeclaredMethod("loginButton", PageElements.class).getReturnType(), WebElement.class);
+    }
+
+    @Test
+    public void unsupportedPagesAreLeftToPageFactory() throws Exception {
+        String source = String.join("\n",
+                "package fixtures;",
+                "",
+                "import io.appium.java_client.pagefactory.AndroidBy;",
+                "import io.appium.java_client.pagefactory.AndroidFindBy;",
+                "import io.appium.java_client.pagefactory.AndroidFindBys;",
+                "import org.openqa.selenium.WebElement;",
+                "",
+                "public class ChainedPage {",
+                "    @AndroidFindBy(id = \"plain\")",
+                "    private WebElement plain;",
+                "",
+                "    @AndroidFindBys({@AndroidBy(id = \"list\"), @AndroidBy(className = \"row\")})",
+                "    private WebElement chained;",
+                "",
+                "    @AndroidFindBy(id = \"shared\")",
+                "    static WebElement shared;",
+                "}",
+                "");
+        List<Diagnostic<? extends JavaFileObject>> diagnostics = new ArrayList<>();
+        Assert.assertTrue(compile("ChainedPage", source, diagnostics), "Page should still compile: " + diagnostics);
+        Assert.assertFalse(Files.exists(workDir.resolve("generated/fixtures/ChainedPageLocators.java")),
+                "No locator table expected for a page with unsupported fields");
+        Assert.assertTrue(warned(diagnostics, "@AndroidFindBys is not supported"), "Got " + diagnostics);
+        Assert.assertTrue(warned(diagnostics, "non-static and non-final"), "Got " + diagnostics);
+        Assert.assertTrue(warned(diagnostics, "bound by PageFactory"), "Got " + diagnostics);
+    }
+
+    private static boolean warned(List<Diagnostic<? extends JavaFileObject>> diagnostics, String message) {
+        return diagnostics.stream().anyMatch(d -> d.getKind() == Diagnostic.Kind.WARNING
+                && d.getMessage(null).contains(message));
+    }
+
+    private boolean compile(String className, String source, List<Diagnostic<? extends JavaFileObject>> errors)
+            throws IOException {
+        Path sourceFile = workDir.resolve("src/fixtures/" + className + ".java");
+        Path classes = workDir.resolve("classes");
+        Path generated = workDir.resolve("generated");
+        Files.createDirectories(sourceFile.getParent());
+        Files.createDirectories(classes);
+        Files.createDirectories(generated);
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-d", classes.toString(), "-s", generated.toString(),
+                            "-classpath", System.getProperty("java.class.path")),
+                    null, files.getJavaFileObjects(sourceFile.toFile()));
+            task.setProcessors(Collections.singletonList(new PageLocatorProcessor()));
+            boolean compiled = task.call();
+            errors.addAll(diagnostics.getDiagnostics());
+            return compiled;
+        }
+    }
+
+    /**
+     * Generated locator constant, e.g. LOGIN_BUTTON_IOS
+     */
+    private By generated(String constant) throws Exception {
+        Field field = locators.getDeclaredField(constant);
+        field.setAccessible(true);
+        return (By) field.get(null);
+    }
+
+    private By decorated(String field, String platform, String automation) throws Exception {
+        DefaultElementByBuilder builder = new DefaultElementByBuilder(platform, automation);
+        builder.setAnnotated(page.getDeclaredField(field));
+        return builder.buildBy();
+    }
+
+    /**
+     * Locators sent to a native-context driver, in order, when the By looks up
+     * elements that are not there. Composite locators are expanded the way
+     * RemoteWebDriver runs them, and each is recorded as it goes on the wire.
+     */
+    private static List<String> lookups(By by) {
+        List<String> sent = new ArrayList<>();
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "findElements":
+                    By locator = (By) args[0];
+                    if (locator instanceof By.Remotable) {
+                        sent.add(wireLocator(((By.Remotable) locator).getRemoteParameters()));
+                        return Collections.emptyList();
+                    }
+                    return locator.findElements((SearchContext) proxy);
+                case "findElement":
+                    throw new NoSuchElementException(String.valueOf(args[0]));
+                case "isBrowser":
+                    return false;
+                case "getContext":
+                    return "NATIVE_APP";
+                case "toString":
+                    return "recording driver";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        };
+        SearchContext driver = (SearchContext) Proxy.newProxyInstance(PageLocatorProcessorTest.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, HasBrowserCheck.class, SupportsContextSwitching.class}, handler);
+        by.findElements(driver);
+        return sent;
+    }
+
+    /**
+     * Strategy and value as the W3C protocol sends them: an id lookup goes as
+     * a CSS selector, however the By was built
+     */
+    private static String wireLocator(By.Remotable.Parameters parameters) {
+        String value = String.valueOf(parameters.value());
+        return "id".equals(parameters.using()) ? "css selector: #" + value : parameters.using() + ": " + value;
+    }
+}
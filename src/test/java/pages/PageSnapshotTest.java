@@ -0,0 +1,161 @@
+package pages;
+
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Answers locator queries from a UiAutomator2 page source, with a driver
+ * that counts page source fetches and records live lookups.
+ */
+public class PageSnapshotTest {
+
+    private static final String ANDROID_SOURCE = String.join("\n",
+            "<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>",
+            "<hierarchy index=\"0\" class=\"hierarchy\" width=\"1080\" height=\"2220\">",
+            "  <android.widget.FrameLayout class=\"android.widget.FrameLayout\" displayed=\"true\" bounds=\"[0,0][1080,2220]\">",
+            "    <android.widget.EditText class=\"android.widget.EditText\" text=\"user@example.com\"",
+            "        resource-id=\"com.example.app:id/username\" enabled=\"true\" selected=\"false\" displayed=\"true\"",
+            "        bounds=\"[40,200][1040,320]\"/>",
+            "    <android.widget.EditText class=\"android.widget.EditText\" text=\"\" content-desc=\"Enter Password\"",
+            "        resource-id=\"com.example.app:id/password\" enabled=\"true\" displayed=\"true\" bounds=\"[40,340][1040,460]\"/>",
+            "    <android.widget.Button class=\"android.widget.Button\" text=\"Log In\" content-desc=\"Log In\"",
+            "        enabled=\"false\" selected=\"false\" displayed=\"true\" bounds=\"[40,500][1040,620]\"/>",
+            "    <android.widget.TextView class=\"android.widget.TextView\" text=\"Wrong password\"",
+            "        resource-id=\"com.example.app:id/error_message\" displayed=\"false\" bounds=\"[0,0][0,0]\"/>",
+            "    <androidx.recyclerview.widget.RecyclerView class=\"androidx.recyclerview.widget.RecyclerView\"",
+            "        scrollable=\"true\" displayed=\"true\" bounds=\"[0,700][1080,2100]\">",
+            "      <android.widget.TextView class=\"android.widget.TextView\" text=\"Item 1\" displayed=\"true\" bounds=\"[0,700][1080,900]\"/>",
+            "      <android.widget.TextView class=\"android.widget.TextView\" text=\"Item 2\" displayed=\"true\" bounds=\"[0,900][1080,1100]\"/>",
+            "      <android.widget.TextView class=\"android.widget.TextView\" text=\"Item 3\" displayed=\"true\" bounds=\"[0,1100][1080,1350]\"/>",
+            "    </androidx.recyclerview.widget.RecyclerView>",
+            "  </android.widget.FrameLayout>",
+            "</hierarchy>");
+
+    private int sourceFetches;
+    private List<By> liveLookups;
+    private WebDriver driver;
+
+    @BeforeMethod
+    public void createDriver() {
+        sourceFetches = 0;
+        liveLookups = new ArrayList<>();
+        driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebDriver.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getPageSource":
+                            sourceFetches++;
+                            return ANDROID_SOURCE;
+                        case "findElements":
+                            liveLookups.add((By) args[0]);
+                            return Collections.emptyList();
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "snapshot test driver";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        PageSnapshot.invalidate();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void discardSnapshot() {
+        PageSnapshot.invalidate();
+    }
+
+    @Test
+    public void locatorsAreAnsweredFromOnePageSource() {
+        PageSnapshot snapshot = PageSnapshot.of(driver);
+
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.id("com.example.app:id/username")));
+        // Appium also matches an id without its package prefix
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.id("username")));
+        Assert.assertTrue(snapshot.isPresent(By.id("password")));
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.accessibilityId("Enter Password")));
+        Assert.assertEquals(snapshot.count(AppiumBy.className("android.widget.EditText")), 2);
+        Assert.assertTrue(snapshot.isPresent(AppiumBy.xpath("//android.widget.Button[@text='Log In']")));
+        Assert.assertFalse(snapshot.isPresent(AppiumBy.id("missing")));
+        Assert.assertEquals(snapshot.getAttribute(AppiumBy.androidUIAutomator(
+                "new UiSelector().className(\"android.widget.EditText\").instance(1)"), "resource-id"),
+                "com.example.app:id/password");
+
+        Assert.assertSame(PageSnapshot.of(driver), snapshot, "A fresh snapshot is reused");
+        Assert.assertEquals(sourceFetches, 1);
+        Assert.assertTrue(liveLookups.isEmpty(), "No live lookups expected, got " + liveLookups);
+    }
+
+    @Test
+    public void displayAndTextComeFromAttributes() {
+        PageSnapshot snapshot = PageSnapshot.of(driver);
+
+        Assert.assertTrue(snapshot.isDisplayed(AppiumBy.accessibilityId("Log In")));
+        Assert.assertFalse(snapshot.isDisplayed(AppiumBy.id("error_message")));
+        Assert.assertEquals(snapshot.getText(AppiumBy.id("username")), "user@example.com");
+        Assert.assertNull(snapshot.getText(AppiumBy.id("missing")));
+    }
+
+    @Test
+    public void elementStateIsReadFromTheSnapshot() {
+        PageSnapshot snapshot = PageSnapshot.of(driver);
+
+        ElementState state = snapshot.getState(AppiumBy.accessibilityId("Log In"), EnumSet.of(
+                ElementState.Property.DISPLAYED, ElementState.Property.ENABLED, ElementState.Property.RECT));
+        Assert.assertTrue(state.isDisplayed());
+        Assert.assertFalse(state.isEnabled());
+        Rectangle rect = state.getRect();
+        Assert.assertEquals(Arrays.asList(rect.getX(), rect.getY(), rect.getWidth(), rect.getHeight()),
+                Arrays.asList(40, 500, 1000, 120));
+
+        Assert.assertFalse(snapshot.getState(AppiumBy.id("missing"),
+                EnumSet.of(ElementState.Property.DISPLAYED)).isPresent());
+        // The password field has no selected attribute, so only the element can answer
+        Assert.assertNull(snapshot.getState(AppiumBy.id("password"), EnumSet.of(ElementState.Property.SELECTED)));
+    }
+
+    @Test
+    public void unsupportedLocatorsGoLive() {
+        PageSnapshot snapshot = PageSnapshot.of(driver);
+        By viewTag = AppiumBy.androidViewTag("welcome");
+        By scrollable = AppiumBy.androidUIAutomator("new UiSelector().scrollable(true)");
+
+        Assert.assertFalse(snapshot.isPresent(viewTag));
+        Assert.assertFalse(snapshot.isPresent(scrollable));
+        Assert.assertEquals(liveLookups, Arrays.asList(viewTag, scrollable));
+    }
+
+    @Test
+    public void scrollHelpersDescribeTheList() {
+        PageSnapshot snapshot = PageSnapshot.of(driver);
+
+        Rectangle list = snapshot.scrollableRect();
+        Assert.assertEquals(Arrays.asList(list.getX(), list.getY(), list.getWidth(), list.getHeight()),
+                Arrays.asList(0, 700, 1080, 1400));
+        Assert.assertEquals(snapshot.itemHeight(), 200);
+        Assert.assertEquals(snapshot.visibleItems(), Arrays.asList(
+                "android.widget.TextView|Item 1", "android.widget.TextView|Item 2", "android.widget.TextView|Item 3"));
+    }
+
+    @Test
+    public void invalidateForcesAFreshSource() {
+        PageSnapshot first = PageSnapshot.of(driver);
+        PageSnapshot.invalidate();
+        Assert.assertNotSame(PageSnapshot.of(driver), first);
+        Assert.assertEquals(sourceFetches, 2);
+    }
+}
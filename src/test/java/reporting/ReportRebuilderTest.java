@@ -0,0 +1,74 @@
+package reporting;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ReportRebuilderTest {
+    private static final List<String> EVENTS = Arrays.asList(
+            "{\"type\":\"info\",\"key\":\"Platform\",\"value\":\"android\"}",
+            "{\"type\":\"test\",\"test\":1,\"name\":\"Login as admin\",\"time\":1000}",
+            "{\"type\":\"log\",\"test\":1,\"status\":\"PASS\",\"message\":\"ok\",\"time\":1500}",
+            "{\"type\":\"end\",\"test\":1,\"time\":2000}",
+            "{\"type\":\"test\",\"test\":2,\"name\":\"Login as guest\",\"time\":2100}",
+            "{\"type\":\"test\",\"test\":3,\"name\":\"Logout\",\"time\":2200}",
+            "{\"type\":\"log\",\"test\":2,\"status\":\"FAIL\",\"message\":\"boom\",\"time\":2300}",
+            "{\"type\":\"end\",\"test\":2,\"time\":2400}",
+            "{\"type\":\"end\",\"test\":3,\"time\":2500}");
+
+    private Path workDir;
+    private Path log;
+    private Path html;
+
+    @BeforeMethod
+    public void writeLog() throws IOException {
+        workDir = Files.createTempDirectory("report-rebuild");
+        log = workDir.resolve("Report_events.jsonl");
+        html = workDir.resolve("Report.html");
+        Files.write(log, EVENTS, StandardCharsets.UTF_8);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void fullRebuildReplaysEveryTest() throws IOException {
+        Assert.assertEquals(ReportRebuilder.rebuild(log.toString(), html.toString()), 3);
+        String report = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+        Assert.assertTrue(report.contains("Login as admin") && report.contains("Logout"));
+    }
+
+    @Test
+    public void recentRebuildStartsAtTheWindowOffset() throws IOException {
+        // The window starts at test 2, whose events interleave with test 3's
+        long offset = 0;
+        for (String event : EVENTS.subList(0, 4)) {
+            offset += (event + System.lineSeparator()).getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        int tests = ReportRebuilder.rebuildRecent(log.toString(), html.toString(), offset,
+                Collections.singletonMap("Platform", "android"), 1);
+
+        Assert.assertEquals(tests, 2);
+        String report = new String(Files.readAllBytes(html), StandardCharsets.UTF_8);
+        Assert.assertFalse(report.contains("Login as admin"), "Tests before the window are left out");
+        Assert.assertTrue(report.contains("Login as guest") && report.contains("Logout"));
+        Assert.assertTrue(report.contains("not shown until the run ends"));
+    }
+}
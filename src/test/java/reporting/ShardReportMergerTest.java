@@ -0,0 +1,124 @@
+package reporting;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ShardReportMergerTest {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private Path workDir;
+
+    @BeforeMethod
+    public void createWorkDir() throws IOException {
+        workDir = Files.createTempDirectory("shard-merge");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteWorkDir() throws IOException {
+        try (Stream<Path> paths = Files.walk(workDir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void latestCucumberAttemptWinsAndKeepsItsBackground() throws IOException {
+        // Scenario A failed on shard-1 and was re-run later on shard-2; B ran once
+        Path shard1 = shard("shard-1", "[{\"uri\":\"classpath:features/login.feature\",\"name\":\"Login\",\"elements\":["
+                + "{\"type\":\"background\",\"line\":3,\"steps\":[]},"
+                + scenario(6, "A", "2026-01-01T00:00:00.000Z", "failed") + ","
+                + "{\"type\":\"background\",\"line\":3,\"steps\":[]},"
+                + scenario(10, "B", "2026-01-01T00:00:03.000Z", "passed") + "]}]", null);
+        Path shard2 = shard("shard-2", "[{\"uri\":\"file:src/test/resources/features/login.feature\",\"name\":\"Login\",\"elements\":["
+                + "{\"type\":\"background\",\"line\":3,\"steps\":[]},"
+                + scenario(6, "A", "2026-01-01T00:01:00.000Z", "passed") + "]}]", null);
+
+        merge(shard1, shard2);
+
+        JsonNode features = mapper.readTree(workDir.resolve("merged/cucumber-reports/Cucumber.json").toFile());
+        List<String> kept = new ArrayList<>();
+        for (JsonNode feature : features) {
+            for (JsonNode element : feature.path("elements")) {
+                kept.add(element.path("type").asText() + ":" + element.path("name").asText()
+                        + element.path("steps").path(0).path("result").path("status").asText(""));
+            }
+        }
+        Assert.assertEquals(kept, Arrays.asList("background:", "scenario:Bpassed", "background:", "scenario:Apassed"));
+    }
+
+    @Test
+    public void eventLogsKeepLatestAttemptWithRenumberedTests() throws IOException {
+        Path shard1 = shard("shard-1", null, String.join("\n",
+                "{\"type\":\"info\",\"key\":\"Platform\",\"value\":\"android\"}",
+                "{\"type\":\"test\",\"test\":1,\"name\":\"A\",\"key\":\"features/login.feature:6\",\"time\":1000}",
+                "{\"type\":\"log\",\"test\":1,\"status\":\"FAIL\",\"message\":\"boom\",\"time\":1500}",
+                "{\"type\":\"end\",\"test\":1,\"time\":2000}",
+                "{\"type\":\"test\",\"test\":2,\"name\":\"B\",\"key\":\"features/login.feature:10\",\"time\":2100}",
+                "{\"type\":\"end\",\"test\":2,\"time\":2500}",
+                // Partial line left by a crashed shard
+                "{\"type\":\"te"));
+        Path shard2 = shard("shard-2", null, String.join("\n",
+                "{\"type\":\"test\",\"test\":1,\"name\":\"A\",\"key\":\"features/login.feature:6\",\"time\":9000}",
+                "{\"type\":\"log\",\"test\":1,\"status\":\"PASS\",\"message\":\"ok\",\"time\":9500}",
+                "{\"type\":\"end\",\"test\":1,\"time\":9800}"));
+
+        merge(shard1, shard2);
+
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : Files.readAllLines(workDir.resolve("merged/MergedReport_events.jsonl"), StandardCharsets.UTF_8)) {
+            events.add(mapper.readTree(line));
+        }
+        List<String> info = events.stream().filter(e -> "info".equals(e.path("type").asText()))
+                .map(e -> e.path("key").asText()).collect(Collectors.toList());
+        Assert.assertEquals(info, Arrays.asList("Shard shard-1", "Shard shard-2"));
+
+        List<String> tests = events.stream().filter(e -> !"info".equals(e.path("type").asText()))
+                .map(e -> e.path("type").asText() + ":" + e.path("test").asLong() + ":" + e.path("category").asText()
+                        + e.path("status").asText(""))
+                .collect(Collectors.toList());
+        // B keeps shard-1's run, A only its shard-2 re-run; tests are numbered in merged order
+        Assert.assertEquals(tests, Arrays.asList(
+                "test:1:shard-1", "end:1:",
+                "test:2:shard-2", "log:2:PASS", "end:2:"));
+    }
+
+    private static String scenario(int line, String name, String start, String status) {
+        return "{\"type\":\"scenario\",\"line\":" + line + ",\"name\":\"" + name + "\",\"start_timestamp\":\"" + start
+                + "\",\"steps\":[{\"result\":{\"status\":\"" + status + "\",\"duration\":1000000000}}]}";
+    }
+
+    /**
+     * A shard's test-output directory with the given Cucumber JSON and event log, either may be null
+     */
+    private Path shard(String name, String cucumberJson, String events) throws IOException {
+        Path output = workDir.resolve(name).resolve("test-output");
+        if (cucumberJson != null) {
+            Files.createDirectories(output.resolve("cucumber-reports"));
+            Files.write(output.resolve("cucumber-reports/Cucumber.json"), cucumberJson.getBytes(StandardCharsets.UTF_8));
+        }
+        if (events != null) {
+            Files.createDirectories(output.resolve("reports"));
+            Files.write(output.resolve("reports/ExtentReport_events.jsonl"), events.getBytes(StandardCharsets.UTF_8));
+        }
+        return output;
+    }
+
+    private void merge(Path... shards) throws IOException {
+        new ShardReportMerger(workDir.resolve("merged"), Arrays.asList(shards)).merge(false);
+    }
+}
@@ -0,0 +1,110 @@
+package runners;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File-backed history of scenario durations and outcomes, keyed by feature
+ * path and line. Loaded once per run, updated in memory as scenarios finish
+ * and written back at suite end. Durations are smoothed (EWMA) so a single
+ * slow run does not reorder the suite.
+ */
+public class ScenarioHistory {
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioHistory.class);
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String PATH = ConfigManager.getProperty("scheduler.history.path",
+            "test-output/history/scenario-history.json");
+    private static final double SMOOTHING = ConfigManager.getDoubleProperty("scheduler.history.smoothing", 0.3);
+    private static final int OUTCOME_WINDOW = ConfigManager.getIntProperty("scheduler.history.outcomes", 5);
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static volatile boolean loaded;
+
+    static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        File file = new File(PATH);
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            Map<String, Entry> stored = mapper.readValue(file, new TypeReference<HashMap<String, Entry>>() {
+            });
+            entries.putAll(stored);
+            logger.info("Loaded duration history for {} scenarios", stored.size());
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable scenario history {}: {}", PATH, e.getMessage());
+        }
+    }
+
+    /**
+     * Smoothed duration in ms, or -1 if the scenario has never run
+     */
+    static long expectedMillis(String key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.avgMillis : -1;
+    }
+
+    /**
+     * True if the scenario failed in any of its recent runs
+     */
+    static boolean failedRecently(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.outcomes.indexOf('F') >= 0;
+    }
+
+    static void record(String key, long durationMillis, boolean failed) {
+        entries.compute(key, (k, entry) -> {
+            Entry updated = entry != null ? entry : new Entry();
+            updated.avgMillis = updated.runs == 0
+                    ? durationMillis
+                    : Math.round(SMOOTHING * durationMillis + (1 - SMOOTHING) * updated.avgMillis);
+            updated.lastMillis = durationMillis;
+            updated.runs++;
+            // Most recent outcome first, P = passed, F = failed
+            String outcomes = (failed ? "F" : "P") + updated.outcomes;
+            updated.outcomes = outcomes.length() > OUTCOME_WINDOW ? outcomes.substring(0, OUTCOME_WINDOW) : outcomes;
+            return updated;
+        });
+    }
+
+    static synchronized void save() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            File target = new File(PATH);
+            target.getParentFile().mkdirs();
+            // Write then rename so a crash never leaves a truncated history
+            File temp = new File(target.getParentFile(), target.getName() + ".tmp");
+            mapper.writeValue(temp, new HashMap<>(entries));
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.error("Failed to write scenario history to {}", PATH, e);
+        }
+    }
+
+    /**
+     * One scenario's history; public fields for Jackson
+     */
+    public static class Entry {
+        public long avgMillis;
+        public long lastMillis;
+        public int runs;
+        public String outcomes = "";
+    }
+}
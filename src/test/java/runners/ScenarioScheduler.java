@@ -0,0 +1,240 @@
+package runners;
+
+import driver.DeviceRegistry;
+import driver.SessionPool;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import reporting.ReportEventLog;
+import utils.ConfigManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sizes the scenario worker pool from the devices or sessions that are
+ * actually available and reports how well the workers were used.
+ *
+ * Workers pull scenarios from TestNG's shared data-provider queue, so a long
+ * scenario on one worker never holds back the others: whichever worker frees
+ * up first takes the next scenario. The queue is ordered from
+ * {@link ScenarioHistory}: recently failed scenarios first, then longest
+ * first, which keeps a long scenario from starting last.
+ */
+public class ScenarioScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioScheduler.class);
+
+    private static final AtomicInteger queueDepth = new AtomicInteger();
+    private static final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private static final AtomicLong queueDepthSamples = new AtomicLong();
+    private static final AtomicLong queueDepthTotal = new AtomicLong();
+    private static final Map<String, WorkerStats> workers = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Long> scenarioStart = new ThreadLocal<>();
+    private static volatile long runStart;
+    private static volatile int workerCount = 1;
+    private static volatile long predictedMakespanMillis = -1;
+    private static final boolean ORDER_BY_HISTORY = ConfigManager.getBooleanProperty("scheduler.history.enabled", true);
+
+    /**
+     * Set the data-provider thread count before any scenario is dispatched
+     */
+    public static void configure(XmlSuite suite) {
+        workerCount = resolveWorkerCount(suite);
+        suite.setDataProviderThreadCount(workerCount);
+        logger.info("Scenario scheduler using {} worker(s)", workerCount);
+    }
+
+    /**
+     * Explicit scheduler.workers wins; otherwise one worker per device or pooled session
+     */
+    private static int resolveWorkerCount(XmlSuite suite) {
+        int configured = ConfigManager.getIntProperty("scheduler.workers", 0);
+        if (configured > 0) {
+            return configured;
+        }
+
+        int workers = 0;
+        for (XmlTest test : suite.getTests()) {
+            String platform = test.getParameter("platform");
+            if (platform == null) {
+                platform = ConfigManager.getProperty("test.platform", "android");
+            }
+            workers = Math.max(workers, getCapacity(platform));
+        }
+        return Math.max(1, workers);
+    }
+
+    private static int getCapacity(String platform) {
+        if (DeviceRegistry.isEnabled()) {
+            return DeviceRegistry.getDeviceCount(platform);
+        }
+        if (SessionPool.isEnabled()) {
+            return ConfigManager.getIntProperty("session.pool.size." + platform.toLowerCase(), 1);
+        }
+        return 1;
+    }
+
+    public static Object[][] schedule(Object[][] scenarios) {
+        if (ORDER_BY_HISTORY) {
+            scenarios = orderByHistory(scenarios);
+        }
+        if (runStart == 0) {
+            runStart = System.currentTimeMillis();
+        }
+        queueDepth.addAndGet(scenarios.length);
+        maxQueueDepth.accumulateAndGet(queueDepth.get(), Math::max);
+        return scenarios;
+    }
+
+    /**
+     * Recently failed scenarios first (fail fast, and their retries start early),
+     * then longest expected duration first. Unknown scenarios count as average.
+     */
+    private static Object[][] orderByHistory(Object[][] scenarios) {
+        ScenarioHistory.load();
+        long knownTotal = 0;
+        int known = 0;
+        for (Object[] row : scenarios) {
+            long expected = ScenarioHistory.expectedMillis(keyOf(row));
+            if (expected >= 0) {
+                knownTotal += expected;
+                known++;
+            }
+        }
+        long fallback = known > 0 ? knownTotal / known : 0;
+
+        List<ScheduledScenario> ordered = new ArrayList<>();
+        for (Object[] row : scenarios) {
+            String key = keyOf(row);
+            long expected = ScenarioHistory.expectedMillis(key);
+            ordered.add(new ScheduledScenario(row, expected >= 0 ? expected : fallback, ScenarioHistory.failedRecently(key)));
+        }
+        ordered.sort(Comparator.comparing((ScheduledScenario scenario) -> !scenario.failedRecently)
+                .thenComparingLong(scenario -> -scenario.expectedMillis));
+
+        predictedMakespanMillis = predictMakespan(ordered, workerCount);
+        logger.info("Scheduled {} scenarios ({} with history), predicted makespan {} s on {} worker(s)",
+                scenarios.length, known, predictedMakespanMillis / 1000, workerCount);
+
+        Object[][] result = new Object[ordered.size()][];
+        for (int i = 0; i < ordered.size(); i++) {
+            result[i] = ordered.get(i).row;
+        }
+        return result;
+    }
+
+    /**
+     * Simulate workers taking scenarios from the queue in order
+     */
+    private static long predictMakespan(List<ScheduledScenario> ordered, int workers) {
+        PriorityQueue<Long> workerLoads = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            workerLoads.add(0L);
+        }
+        long makespan = 0;
+        for (ScheduledScenario scenario : ordered) {
+            long finish = workerLoads.poll() + scenario.expectedMillis;
+            makespan = Math.max(makespan, finish);
+            workerLoads.add(finish);
+        }
+        return makespan;
+    }
+
+    private static String keyOf(Object[] row) {
+        if (row.length > 0 && row[0] instanceof PickleWrapper) {
+            Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+            return ReportEventLog.scenarioKey(pickle.getUri().toString(), pickle.getLine());
+        }
+        return String.valueOf(row.length > 0 ? row[0] : "");
+    }
+
+    public static void scenarioStarted() {
+        int depth = queueDepth.updateAndGet(value -> Math.max(0, value - 1));
+        queueDepthSamples.incrementAndGet();
+        queueDepthTotal.addAndGet(depth);
+        scenarioStart.set(System.currentTimeMillis());
+    }
+
+    /**
+     * Account the finished scenario to its worker and record it in the duration history
+     */
+    public static void scenarioFinished(String scenarioKey, boolean failed) {
+        Long start = scenarioStart.get();
+        if (start == null) {
+            return;
+        }
+        scenarioStart.remove();
+        long duration = System.currentTimeMillis() - start;
+        if (ORDER_BY_HISTORY && scenarioKey != null) {
+            ScenarioHistory.record(scenarioKey, duration, failed);
+        }
+        WorkerStats stats = workers.computeIfAbsent(Thread.currentThread().getName(), name -> new WorkerStats());
+        stats.busyMillis.addAndGet(duration);
+        stats.scenarios.incrementAndGet();
+    }
+
+    /**
+     * Queue depth, per-worker utilization and idle time for the run so far
+     */
+    public static String getSummary() {
+        long wallMillis = runStart > 0 ? System.currentTimeMillis() - runStart : 0;
+        long samples = queueDepthSamples.get();
+        StringBuilder summary = new StringBuilder(String.format(
+                "Scenario Scheduler - Workers: %d, Wall: %d ms, Max queue depth: %d, Avg queue depth: %.1f",
+                workerCount, wallMillis, maxQueueDepth.get(),
+                samples > 0 ? (double) queueDepthTotal.get() / samples : 0.0));
+
+        long totalBusy = 0;
+        for (Map.Entry<String, WorkerStats> entry : workers.entrySet()) {
+            long busy = entry.getValue().busyMillis.get();
+            totalBusy += busy;
+            summary.append(String.format("%n  %s - Scenarios: %d, Busy: %d ms, Idle: %d ms, Utilization: %.0f%%",
+                    entry.getKey(), entry.getValue().scenarios.get(), busy, Math.max(0, wallMillis - busy),
+                    wallMillis > 0 ? 100.0 * busy / wallMillis : 0.0));
+        }
+        long capacity = wallMillis * Math.max(workerCount, workers.size());
+        summary.append(String.format("%n  Overall utilization: %.0f%%",
+                capacity > 0 ? 100.0 * totalBusy / capacity : 0.0));
+        if (predictedMakespanMillis > 0) {
+            summary.append(String.format("%n  Predicted makespan: %d ms, Actual: %d ms, Error: %+.0f%%",
+                    predictedMakespanMillis, wallMillis,
+                    100.0 * (wallMillis - predictedMakespanMillis) / predictedMakespanMillis));
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Persist the duration history updated by this run
+     */
+    public static void saveHistory() {
+        if (ORDER_BY_HISTORY) {
+            ScenarioHistory.save();
+        }
+    }
+
+    private static class ScheduledScenario {
+        private final Object[] row;
+        private final long expectedMillis;
+        private final boolean failedRecently;
+
+        private ScheduledScenario(Object[] row, long expectedMillis, boolean failedRecently) {
+            this.row = row;
+            this.expectedMillis = expectedMillis;
+            this.failedRecently = failedRecently;
+        }
+    }
+
+    private static class WorkerStats {
+        private final AtomicLong busyMillis = new AtomicLong();
+        private final AtomicInteger scenarios = new AtomicInteger();
+    }
+}
@@ -1,23 +1,37 @@
 package runners;
 
+import driver.CommandMetrics;
 import driver.DriverManager;
+import driver.SessionPool;
+import listeners.RetryListener;
+import pages.AdaptiveWait;
+import pages.ElementCache;
+import pages.ElementState;
+import pages.LocatorProfile;
+import pages.PageSnapshot;
+import pages.ScrollEngine;
 import reporting.ExtentReportManager;
+import utils.ArtifactRetention;
 import utils.ConfigManager;
-import utils.ScreenshotUtils;
+import utils.ConfigSnapshot;
+import utils.ScreenshotStore;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.testng.ITestContext;
 import org.testng.annotations.*;
 
+import java.util.Collections;
+
 @CucumberOptions(
         features = "src/test/resources/features",
         glue = {"stepDefinitions", "hooks"},
         plugin = {
                 "pretty",
-                "html:test-output/cucumber-reports/Cucumber.html",
-                "json:test-output/cucumber-reports/Cucumber.json",
-                "junit:test-output/cucumber-reports/Cucumber.xml",
+                "html:" + TestRunner.CUCUMBER_REPORT_DIR + "/Cucumber.html",
+                "json:" + TestRunner.CUCUMBER_REPORT_DIR + "/Cucumber.json",
+                "junit:" + TestRunner.CUCUMBER_REPORT_DIR + "/Cucumber.xml",
                 "com.aventstack.extentreports.cucumber.adapter.ExtentCucumberAdapter:"
         },
         tags = "@login ",
@@ -27,58 +41,89 @@ import org.testng.annotations.*;
 public class TestRunner extends AbstractTestNGCucumberTests {
     private static final Logger logger = LoggerFactory.getLogger(TestRunner.class);
 
+    // Where the Cucumber reports are written; attachments link relative to it
+    public static final String CUCUMBER_REPORT_DIR = "test-output/cucumber-reports";
+
     @BeforeSuite(alwaysRun = true)
-    public void beforeSuite() {
+    public void beforeSuite(ITestContext context) {
         logger.info("Starting test suite execution");
+        ConfigManager.enterScope(scopeFor(context));
 
         // Initialize ExtentReports
         ExtentReportManager.createInstance();
         ExtentReportManager.logInfo("Test Suite Started");
         logger.info("Test suite started");
-        // Clean up old screenshots (keep last 7 days)
-        ScreenshotUtils.cleanupOldScreenshots(7);
+        // Expire old artifacts in the background; never delays the first scenario
+        ArtifactRetention.startAsync();
 
-        // Set system properties for parallel execution
-        System.setProperty("dataproviderthreadcount", "2");
+        // Warm up pooled sessions before the first scenario
+        if (SessionPool.isEnabled()) {
+            SessionPool.prewarm(getCurrentPlatform());
+        }
+
+        // Size scenario workers from available devices/sessions before scenarios are dispatched
+        ScenarioScheduler.configure(context.getSuite().getXmlSuite());
     }
 
     @AfterSuite(alwaysRun = true)
     public void afterSuite() {
         logger.info("Finishing test suite execution");
 
-        // Quit driver if still active
-        if (DriverManager.isDriverInitialized()) {
-            DriverManager.quitDriver();
+        // Quit driver if still active and close pooled sessions
+        DriverManager.shutdown();
+
+        logger.info(ScenarioScheduler.getSummary());
+        ScenarioScheduler.saveHistory();
+        logger.info(AdaptiveWait.getSummary());
+        logger.info(ElementCache.getSummary());
+        logger.info(PageSnapshot.getSummary());
+        logger.info(ElementState.getSummary());
+        logger.info(ScrollEngine.getSummary());
+        logger.info(LocatorProfile.getSummary());
+        LocatorProfile.save();
+        logger.info(RetryListener.RetryAnalyzer.getSummary());
+        if (ExtentReportManager.getReportPath() != null) {
+            CommandMetrics.exportJson(ExtentReportManager.getReportPath().replace(".html", "_commands.json"));
         }
 
         // Generate final report
         ExtentReportManager.flush();
+        logger.info(ScreenshotStore.getSummary());
+        logger.info(ArtifactRetention.getSummary());
 
         logger.info("Test suite execution completed");
     }
 
     @BeforeMethod(alwaysRun = true)
-    public void beforeMethod() {
+    public void beforeMethod(ITestContext context) {
         logger.debug("Before method execution");
+        // Scenario threads pick up their <test>'s config overlay
+        ConfigManager.enterScope(scopeFor(context));
     }
 
     @AfterMethod(alwaysRun = true)
     public void afterMethod() {
         logger.debug("After method execution");
 
-        // Ensure driver is quit after each test method for parallel execution
+        // Release driver after each test method (returned to the pool when enabled)
         if (DriverManager.isDriverInitialized()) {
             DriverManager.quitDriver();
         }
+        ConfigManager.clearScope();
+    }
+
+    private static ConfigSnapshot scopeFor(ITestContext context) {
+        ConfigSnapshot scope = ConfigManager.getScope(context.getName());
+        return scope != null ? scope : ConfigManager.getScope(context.getSuite().getName());
     }
 
     /**
-     * Enable parallel execution at scenario level
+     * Enable parallel execution at scenario level; workers pull from a shared queue
      */
     @Override
     @DataProvider(parallel = true)
     public Object[][] scenarios() {
-        return super.scenarios();
+        return ScenarioScheduler.schedule(super.scenarios());
     }
 
     /**
@@ -89,10 +134,10 @@ public class TestRunner extends AbstractTestNGCucumberTests {
     }
 
     /**
-     * Set platform for test execution
+     * Set platform for test execution on the current thread
      */
     public static void setPlatform(String platform) {
-        ConfigManager.setProperty("test.platform", platform);
+        ConfigManager.enterScope("platform", Collections.singletonMap("test.platform", platform));
         logger.info("Platform set to: {}", platform);
     }
 }
@@ -104,6 +104,19 @@ public class LoginSteps {
         }
     }
 
+    @Then("the user should not see an error message within {int} ms")
+    public void theUserShouldNotSeeAnErrorMessageWithin(int withinMillis) {
+        try {
+            loginPage.assertErrorMessageAbsentWithin(withinMillis);
+            ExtentReportManager.logPass("No error message displayed within " + withinMillis + " ms");
+            logger.info("No error message displayed within {} ms", withinMillis);
+        } catch (AssertionError e) {
+            ExtentReportManager.logFail("Unexpected error message: " + e.getMessage());
+            logger.error("Unexpected error message", e);
+            throw e;
+        }
+    }
+
     @When("the user performs login with username {string} and password {string}")
     public void theUserPerformsLoginWithUsernameAndPassword(String username, String password) {
         try {
@@ -0,0 +1,44 @@
+package utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+public class ConfigManagerTest {
+    private static final String KEY = "config.manager.test.value";
+
+    @AfterMethod(alwaysRun = true)
+    public void leaveScopes() {
+        ConfigManager.clearScope();
+    }
+
+    @Test
+    public void exitScopeRestoresTheScopeItReplaced() {
+        ConfigSnapshot suite = ConfigManager.defineScope("exit-suite", null, Collections.singletonMap(KEY, "suite"));
+        ConfigSnapshot test = ConfigManager.defineScope("exit-test", suite, Collections.singletonMap(KEY, "test"));
+
+        ConfigManager.enterScope("platform", Collections.singletonMap(KEY, "platform"));
+        ConfigManager.enterScope(test);
+        Assert.assertEquals(ConfigManager.getProperty(KEY, "none"), "test");
+
+        // Back to the platform overlay, not the test scope's parent (the suite)
+        ConfigManager.exitScope();
+        Assert.assertEquals(ConfigManager.getProperty(KEY, "none"), "platform");
+
+        ConfigManager.exitScope();
+        Assert.assertEquals(ConfigManager.getProperty(KEY, "none"), "none");
+    }
+
+    @Test
+    public void clearScopeForgetsEnteredScopes() {
+        ConfigManager.enterScope("outer", Collections.singletonMap(KEY, "outer"));
+        ConfigManager.enterScope("inner", Collections.singletonMap(KEY, "inner"));
+        ConfigManager.clearScope();
+
+        ConfigManager.enterScope("next", Collections.singletonMap(KEY, "next"));
+        ConfigManager.exitScope();
+        Assert.assertEquals(ConfigManager.getProperty(KEY, "none"), "none");
+    }
+}